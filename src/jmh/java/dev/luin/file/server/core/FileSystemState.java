@@ -0,0 +1,98 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.PropertySource;
+
+import dev.luin.file.server.core.datasource.DataSourceConfig;
+import dev.luin.file.server.core.file.FSFile;
+import dev.luin.file.server.core.file.FileSystem;
+import dev.luin.file.server.core.file.FileSystemConfig;
+import dev.luin.file.server.core.metrics.MetricsConfig;
+import dev.luin.file.server.core.querydsl.QueryDSLConfig;
+import dev.luin.file.server.core.service.model.User;
+import dev.luin.file.server.core.transaction.TransactionManagerConfig;
+import dev.luin.file.server.core.user.UserManager;
+import dev.luin.file.server.core.user.UserManagerConfig;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * A {@link FileSystem} backed by an in-memory HSQLDB database and a temporary base directory, shared by the benchmarks.
+ */
+@State(Scope.Benchmark)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Getter
+public class FileSystemState
+{
+	@Configuration
+	@Import({
+		DataSourceConfig.class,
+		FileSystemConfig.class,
+		MetricsConfig.class,
+		QueryDSLConfig.class,
+		TransactionManagerConfig.class,
+		UserManagerConfig.class
+	})
+	@PropertySource(value = {"classpath:dev/luin/file/server/core/default.properties"}, ignoreResourceNotFound = true)
+	public static class BenchmarkConfig
+	{
+	}
+
+	Path baseDir;
+	AnnotationConfigApplicationContext context;
+	FileSystem fileSystem;
+	User user;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException
+	{
+		baseDir = Files.createTempDirectory("fs-benchmark");
+		System.setProperty("file.baseDir",baseDir.toString());
+		System.setProperty("jdbc.url","jdbc:hsqldb:mem:fs-benchmark");
+		context = new AnnotationConfigApplicationContext(BenchmarkConfig.class);
+		fileSystem = context.getBean(FileSystem.class);
+		user = context.getBean(UserManager.class).insertUser(new User(null,"benchmark",new byte[]{0}));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException
+	{
+		context.close();
+		FileUtils.deleteDirectory(baseDir.toFile());
+	}
+
+	public FSFile createFile(@NonNull final String contentType, @NonNull final byte[] content) throws IOException
+	{
+		return fileSystem.createFile("benchmark",contentType,null,null,null,user.getId(),new ByteArrayInputStream(content));
+	}
+}
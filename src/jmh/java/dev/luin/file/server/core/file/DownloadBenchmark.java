@@ -0,0 +1,164 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.file;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AccessLevel;
+import lombok.val;
+import lombok.var;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Compares the ways a stored file can be sent to a client socket: the stream copy, FileChannel.transferTo to a wrapped
+ * (non socket) channel and FileChannel.transferTo directly to the socket, which is the sendfile(2) path that is also used
+ * by the container when the download is offloaded through the org.apache.tomcat.sendfile.* request attributes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class DownloadBenchmark
+{
+	@Param({"1048576","67108864"})
+	int fileLength;
+	Path baseDir;
+	FileSystem fs;
+	FSFile fsFile;
+	ServerSocketChannel server;
+	SocketChannel client;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException
+	{
+		baseDir = Files.createTempDirectory("fs-benchmark");
+		val path = baseDir.resolve("file");
+		val content = new byte[fileLength];
+		new Random(0).nextBytes(content);
+		Files.write(path,content);
+		val fsFileDAO = Mockito.mock(FSFileDAO.class);
+		val metrics = new FileSystemMetrics(new SimpleMeterRegistry());
+		fs = FileSystem.builder()
+				.fsFileDAO(fsFileDAO)
+				.securityManager(new SecurityManager(fsFileDAO))
+				.uploadSessions(new UploadSessions(metrics,Duration.ofHours(1)))
+				.metrics(metrics)
+				.virtualPathLength(16)
+				.baseDirectories(BaseDirectories.of(baseDir.toString(),PlacementPolicy.ROUND_ROBIN))
+				.filenameLength(32)
+				.uploadExpireAfter(Duration.ZERO)
+				.preallocation(Preallocation.NONE)
+				.uploadLockMode(UploadLockMode.MEMORY)
+				.uploadLockTimeout(Duration.ZERO)
+				.build();
+		fsFile = FSFile.builder()
+				.virtualPath("/file")
+				.path(path.toString())
+				.contentType("application/octet-stream")
+				.timestamp(Instant.now())
+				.length((long)fileLength)
+				.build();
+		server = ServerSocketChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(),0));
+		val drain = new Thread(() -> drain(server));
+		drain.setDaemon(true);
+		drain.start();
+		client = SocketChannel.open(server.getLocalAddress());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException
+	{
+		client.close();
+		server.close();
+		FileUtils.deleteDirectory(baseDir.toFile());
+	}
+
+	@Benchmark
+	public long streamCopy() throws IOException
+	{
+		return fs.write(fsFile,Channels.newOutputStream(client),0,fileLength);
+	}
+
+	@Benchmark
+	public long transferToWrappedChannel() throws IOException
+	{
+		return transferTo(Channels.newChannel(Channels.newOutputStream(client)));
+	}
+
+	@Benchmark
+	public long transferToSocket() throws IOException
+	{
+		return transferTo(client);
+	}
+
+	private long transferTo(final WritableByteChannel output) throws IOException
+	{
+		try (val input = fs.openChannel(fsFile))
+		{
+			var result = 0L;
+			while (result < fileLength)
+				result += input.transferTo(result,fileLength - result,output);
+			return result;
+		}
+	}
+
+	private static void drain(final ServerSocketChannel server)
+	{
+		try (val channel = server.accept())
+		{
+			val buffer = ByteBuffer.allocateDirect(1 << 16);
+			while (channel.read(buffer) >= 0)
+				buffer.clear();
+		}
+		catch (IOException e)
+		{
+			// benchmark finished
+		}
+	}
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.file;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.luin.file.server.core.FileSystemState;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class FileSystemBenchmark
+{
+	private static final String CONTENT_TYPE = "application/octet-stream";
+
+	@State(Scope.Thread)
+	@FieldDefaults(level = AccessLevel.PRIVATE)
+	public static class CreatedFile
+	{
+		FSFile fsFile;
+
+		@TearDown(Level.Invocation)
+		public void tearDown(final FileSystemState state)
+		{
+			if (fsFile != null)
+				state.getFileSystem().deleteFile(fsFile,true);
+			fsFile = null;
+		}
+	}
+
+	@State(Scope.Thread)
+	@FieldDefaults(level = AccessLevel.PRIVATE)
+	public static class EmptyFile
+	{
+		FSFile fsFile;
+
+		@Setup(Level.Invocation)
+		public void setup(final FileSystemState state, final FileSystemBenchmark benchmark) throws IOException
+		{
+			fsFile = state.getFileSystem().createEmptyFile("benchmark",CONTENT_TYPE,(long)benchmark.fileLength,state.getUser().getId());
+		}
+
+		@TearDown(Level.Invocation)
+		public void tearDown(final FileSystemState state)
+		{
+			state.getFileSystem().deleteFile(fsFile,true);
+		}
+	}
+
+	@Param({"65536","16777216"})
+	int fileLength;
+	byte[] content;
+	String sha256Checksum;
+	FSFile fsFile;
+
+	@Setup(Level.Trial)
+	public void setup(final FileSystemState state) throws IOException
+	{
+		content = new byte[fileLength];
+		new Random(0).nextBytes(content);
+		sha256Checksum = DigestUtils.sha256Hex(content);
+		fsFile = state.createFile(CONTENT_TYPE,content);
+	}
+
+	@Benchmark
+	public long write(final FileSystemState state) throws IOException
+	{
+		return state.getFileSystem().write(fsFile,NullOutputStream.NULL_OUTPUT_STREAM);
+	}
+
+	@Benchmark
+	public long writeRange(final FileSystemState state) throws IOException
+	{
+		return state.getFileSystem().write(fsFile,NullOutputStream.NULL_OUTPUT_STREAM,fileLength / 4,fileLength / 2);
+	}
+
+	@Benchmark
+	public FSFile createFile(final FileSystemState state, final CreatedFile createdFile) throws IOException
+	{
+		createdFile.fsFile = state.getFileSystem().createFile("benchmark",CONTENT_TYPE,sha256Checksum,null,null,state.getUser().getId(),new ByteArrayInputStream(content));
+		return createdFile.fsFile;
+	}
+
+	@Benchmark
+	public FSFile append(final FileSystemState state, final EmptyFile emptyFile) throws IOException
+	{
+		return state.getFileSystem().append(emptyFile.fsFile,new ByteArrayInputStream(content),(long)fileLength);
+	}
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.server.download;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.luin.file.server.core.FileSystemState;
+import dev.luin.file.server.core.file.FSFile;
+import dev.luin.file.server.core.server.download.range.ContentRange;
+import dev.luin.file.server.core.server.download.range.ContentRangeUtils;
+import io.vavr.collection.HashMap;
+import io.vavr.collection.Map;
+import io.vavr.collection.Seq;
+import lombok.AccessLevel;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Measures the 200, single range and multipart/byteranges responses of the {@link ResponseWriter} and the
+ * {@link Base64ResponseWriter} written to a discarding ServletOutputStream.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ResponseWriterBenchmark
+{
+	private static class NullServletOutputStream extends ServletOutputStream
+	{
+		@Override
+		public boolean isReady()
+		{
+			return true;
+		}
+
+		@Override
+		public void setWriteListener(WriteListener writeListener)
+		{
+		}
+
+		@Override
+		public void write(int b)
+		{
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len)
+		{
+		}
+	}
+
+	private static final Map<String,String> RANGE_HEADERS = HashMap.of(
+			"NONE","",
+			"SINGLE","bytes=0-65535",
+			"MULTIPLE","bytes=0-65535,131072-196607,-65536");
+
+	@Param({"false","true"})
+	boolean base64;
+	@Param({"NONE","SINGLE","MULTIPLE"})
+	String ranges;
+	@Param({"1048576"})
+	int fileLength;
+	FSFile fsFile;
+	Seq<ContentRange> contentRanges;
+	HttpServletRequest request;
+	HttpServletResponse response;
+
+	@Setup(Level.Trial)
+	public void setup(final FileSystemState state) throws IOException
+	{
+		val content = new byte[fileLength];
+		new Random(0).nextBytes(content);
+		fsFile = state.createFile("application/octet-stream",content);
+		contentRanges = ContentRangeUtils.parseRangeHeader(RANGE_HEADERS.get(ranges).get());
+		request = Mockito.mock(HttpServletRequest.class,Mockito.withSettings().stubOnly());
+		response = Mockito.mock(HttpServletResponse.class,Mockito.withSettings().stubOnly());
+		Mockito.when(response.getOutputStream()).thenReturn(new NullServletOutputStream());
+	}
+
+	@Benchmark
+	public void write(final FileSystemState state) throws IOException
+	{
+		val writer = base64 ? new Base64ResponseWriter(state.getFileSystem(),request,response) : new ResponseWriter(state.getFileSystem(),request,response);
+		writer.write(fsFile,contentRanges);
+	}
+}
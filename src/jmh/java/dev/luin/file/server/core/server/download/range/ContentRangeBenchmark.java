@@ -0,0 +1,87 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.server.download.range;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vavr.collection.CharSeq;
+import io.vavr.collection.HashMap;
+import io.vavr.collection.Map;
+import io.vavr.collection.Seq;
+import io.vavr.control.Option;
+import io.vavr.control.Try;
+import lombok.AccessLevel;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ContentRangeBenchmark
+{
+	private static final Map<String,String> RANGE_HEADERS = HashMap.of(
+			"SINGLE","bytes=0-499",
+			"SUFFIX","bytes=-500",
+			"FIRST_AND_LAST","bytes=0-0,-1",
+			"MULTIPLE","bytes=0-99,200-299,400-499,600-699,800-");
+
+	@Param({"SINGLE","SUFFIX","FIRST_AND_LAST","MULTIPLE"})
+	String ranges;
+	String rangeHeader;
+
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		rangeHeader = RANGE_HEADERS.get(ranges).get();
+	}
+
+	@Benchmark
+	public Seq<ContentRange> parseRangeHeader()
+	{
+		return ContentRangeUtils.parseRangeHeader(rangeHeader);
+	}
+
+	@Benchmark
+	public Seq<ContentRange> parseRangeHeaderCharSeq()
+	{
+		return CharSeq.of(rangeHeader.substring("bytes=".length()))
+				.split(",")
+				.flatMap(r ->
+				{
+					val parts = r.split("-",2);
+					val first = Try.of(() -> parts.head().trim().toLong()).getOrNull();
+					val last = Try.of(() -> parts.tail().head().trim().toLong()).getOrNull();
+					return Option.of(ContentRange.of(first,last));
+				});
+	}
+}
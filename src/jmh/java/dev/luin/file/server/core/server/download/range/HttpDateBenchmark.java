@@ -0,0 +1,74 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.server.download.range;
+
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vavr.control.Try;
+import lombok.AccessLevel;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class HttpDateBenchmark
+{
+	@Param({"Sun, 06 Nov 1994 08:49:37 GMT","Sunday, 06-Nov-94 08:49:37 GMT","Sun Nov  6 08:49:37 1994"})
+	String header;
+
+	@Benchmark
+	public long getTime() throws ParseException
+	{
+		return ContentRangeUtils.getTime(header);
+	}
+
+	@Benchmark
+	public long getTimeSimpleDateFormat()
+	{
+		return Try.of(() -> getDateFormat("EEE, dd MMM yyyy HH:mm:ss z").parse(header).getTime())
+				.orElse(Try.of(() -> getDateFormat("EEEE, dd-MMM-yy HH:mm:ss z").parse(header).getTime()))
+				.orElse(Try.of(() -> getDateFormat("EEE MMM  d HH:mm:ss yyyy").parse(header).getTime()))
+				.get();
+	}
+
+	private static DateFormat getDateFormat(final String pattern)
+	{
+		val result = new SimpleDateFormat(pattern,Locale.ENGLISH);
+		result.setTimeZone(TimeZone.getTimeZone("GMT"));
+		return result;
+	}
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.server.servlet;
+
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import lombok.AccessLevel;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Compares parsing the client certificate header on every request with the lookup in the parsed certificate cache of
+ * {@link ClientCertificateManagerFilter}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ClientCertificateBenchmark
+{
+	static final String CERTIFICATE =
+			"-----BEGIN CERTIFICATE-----\n" +
+			"MIIDCTCCAfGgAwIBAgIUN2fF8gZgXdlBW6vBqI6eBYkJdAkwDQYJKoZIhvcNAQEL\n" +
+			"BQAwFDESMBAGA1UEAwwJYmVuY2htYXJrMB4XDTI2MTAxNzE3MTkxNVoXDTM2MTAx\n" +
+			"NDE3MTkxNVowFDESMBAGA1UEAwwJYmVuY2htYXJrMIIBIjANBgkqhkiG9w0BAQEF\n" +
+			"AAOCAQ8AMIIBCgKCAQEAuXMWntgyog/NHBLU8H0gzE+D5UH1ncwWqXRV2rf2lKeR\n" +
+			"a3MP1XhG2wBv71490frv9m9dTHDf2rBPeuNxtyo8hx+ZP+Jsz56xPMhJsyY1W3sd\n" +
+			"ixuFrI71lzkhR5DriPDy4w+Odxsfow4OsXJPAwv23cxOKOsIHljEFV9KqSHYJGqQ\n" +
+			"rqyZb/zAOmGArH2BjHraA465GbQ3I7/1ZacVVkrGCmb+74clmuwXN8M5FVpkpypY\n" +
+			"un6cHtDXYWk77YE235yesnbHX7k8w2YYDEuO6kpA31h8QR1FGV63ln9z+oqR023Q\n" +
+			"4FDUIQwcpt4qVdbnLwP2xOu0HprA1VohTZEipOFsaQIDAQABo1MwUTAdBgNVHQ4E\n" +
+			"FgQUJcToib8prTDqLjAamGWlXgBriU4wHwYDVR0jBBgwFoAUJcToib8prTDqLjAa\n" +
+			"mGWlXgBriU4wDwYDVR0TAQH/BAUwAwEB/zANBgkqhkiG9w0BAQsFAAOCAQEAlH7j\n" +
+			"QOGhXe9hYelEsJXt8G3Ft4aHRWsXFUGikufVoSS0aMbeVtd4kDosPfX1xYMj4ngb\n" +
+			"g+1+Z6ZS0+QCF0r7adLGMErlvkifQ/KrR3KIbbLB53KIrplXNwkz/Qc3J8IWbfZr\n" +
+			"bOJUHb4eL/s1l1KfWFIoSpJliyup2e/HUO0ljM1v5g77cpiD5qRkm8u4Zd98BhZR\n" +
+			"5Uea5lIuibyAz16ZxEW+t2yIpv9cWyApwZt7ABcrqh8SgYaxBu/CN7tp1jjHkFuP\n" +
+			"Q1ZXsMTeFkGcbFJv6VaJ2lPHjfz6+g7kZCRk6aw6YwyzUrDAEU+r4PSuZSiy0AJf\n" +
+			"xCI5jcZNz5rvV2/crA==\n" +
+			"-----END CERTIFICATE-----\n";
+
+	ClientCertificateManagerFilter filter;
+
+	@Setup(Level.Trial)
+	public void setup() throws ServletException
+	{
+		val filterConfig = Mockito.mock(FilterConfig.class);
+		Mockito.when(filterConfig.getInitParameter("x509CertificateHeader")).thenReturn("X-Client-Cert");
+		filter = new ClientCertificateManagerFilter();
+		filter.init(filterConfig);
+	}
+
+	@Benchmark
+	public X509Certificate parse() throws CertificateException
+	{
+		return ClientCertificateManagerFilter.decode(CERTIFICATE);
+	}
+
+	@Benchmark
+	public X509Certificate cached() throws CertificateException
+	{
+		return filter.getCertificate(CERTIFICATE);
+	}
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.server.upload.header;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vavr.collection.HashMap;
+import io.vavr.collection.Map;
+import io.vavr.control.Option;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class UploadMetadataBenchmark
+{
+	private static final Map<String,String> HEADERS = HashMap.of(
+			"SINGLE","filename d29ybGRfZG9taW5hdGlvbl9wbGFuLnBkZg==",
+			"MULTIPLE","filename d29ybGRfZG9taW5hdGlvbl9wbGFuLnBkZg==,contentType YXBwbGljYXRpb24vcGRm,is_confidential");
+
+	@Param({"SINGLE","MULTIPLE"})
+	String metadata;
+	HttpServletRequest request;
+
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		request = Mockito.mock(HttpServletRequest.class,Mockito.withSettings().stubOnly());
+		Mockito.when(request.getHeader("Upload-Metadata")).thenReturn(HEADERS.get(metadata).get());
+	}
+
+	@Benchmark
+	public Option<UploadMetadata> parse()
+	{
+		return UploadMetadata.of(request);
+	}
+}
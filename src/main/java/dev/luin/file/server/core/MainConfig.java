@@ -22,6 +22,8 @@ import org.springframework.context.annotation.PropertySource;
 
 import dev.luin.file.server.core.datasource.DataSourceConfig;
 import dev.luin.file.server.core.file.FileSystemConfig;
+import dev.luin.file.server.core.file.UploadReaperConfig;
+import dev.luin.file.server.core.metrics.MetricsConfig;
 import dev.luin.file.server.core.querydsl.QueryDSLConfig;
 import dev.luin.file.server.core.server.download.DownloadServerConfig;
 import dev.luin.file.server.core.server.upload.UploadServerConfig;
@@ -35,9 +37,11 @@ import dev.luin.file.server.core.user.UserManagerConfig;
 	DataSourceConfig.class,
 	DownloadServerConfig.class,
 	FileSystemConfig.class,
+	MetricsConfig.class,
 	QueryDSLConfig.class,
 	ServiceConfig.class,
 	TransactionManagerConfig.class,
+	UploadReaperConfig.class,
 	UploadServerConfig.class
 })
 @PropertySource(value = {"classpath:dev/luin/file/server/core/default.properties"}, ignoreResourceNotFound = true)
@@ -21,6 +21,7 @@ import java.util.Optional;
 import javax.sql.DataSource;
 
 import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -28,6 +29,7 @@ import org.springframework.context.annotation.Configuration;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -39,6 +41,7 @@ import lombok.experimental.FieldDefaults;
 public class DataSourceConfig
 {
 	public static final String BASEPATH = "classpath:/dev/luin/file/server/core/db/migration/";
+	public static final String COMMON_LOCATION = BASEPATH + "common";
 
 	@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 	@AllArgsConstructor
@@ -66,6 +69,8 @@ public class DataSourceConfig
 		}
 	}
 
+	@Autowired
+	MeterRegistry meterRegistry;
 	@Value("${jdbc.driverClassName}")
 	String driverClassName;
 	@Value("${jdbc.url}")
@@ -104,6 +109,7 @@ public class DataSourceConfig
 		config.setConnectionTestQuery(testQuery);
 		config.setMinimumIdle(minPoolSize);
 		config.setMaximumPoolSize(maxPoolSize);
+		config.setMetricRegistry(meterRegistry);
 		return new HikariDataSource(config);
 	}
 
@@ -115,7 +121,7 @@ public class DataSourceConfig
 		{
 			val config = Flyway.configure()
 					.dataSource(jdbcUrl,username,password)
-					.locations(l)
+					.locations(l,COMMON_LOCATION)
 					.ignoreMissingMigrations(true);
 			config.load().migrate();
 		});
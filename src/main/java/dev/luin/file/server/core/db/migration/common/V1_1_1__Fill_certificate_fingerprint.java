@@ -0,0 +1,42 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.db.migration.common;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import lombok.val;
+
+public class V1_1_1__Fill_certificate_fingerprint extends BaseJavaMigration
+{
+	@Override
+	public void migrate(Context context) throws Exception
+	{
+		val connection = context.getConnection();
+		try (val select = connection.prepareStatement("select id, certificate from fs_user where certificate_fingerprint is null");
+				val update = connection.prepareStatement("update fs_user set certificate_fingerprint = ? where id = ?");
+				val users = select.executeQuery())
+		{
+			while (users.next())
+			{
+				update.setString(1,DigestUtils.sha256Hex(users.getBytes("certificate")));
+				update.setLong(2,users.getLong("id"));
+				update.executeUpdate();
+			}
+		}
+	}
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.file;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.io.output.CountingOutputStream;
+
+import io.micrometer.core.instrument.Timer;
+import io.vavr.control.Option;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.FieldDefaults;
+
+@FieldDefaults(level=AccessLevel.PRIVATE, makeFinal=true)
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+@Getter(AccessLevel.PACKAGE)
+public class Appender
+{
+	@NonNull
+	FSFile fsFile;
+	@NonNull
+	UploadSession uploadSession;
+	@NonNull
+	@Getter
+	CountingOutputStream output;
+	@NonNull
+	Option<Path> baseDir;
+	@NonNull
+	Timer.Sample sample;
+	@NonNull
+	Option<ChecksumVerifier> verifier;
+	long offset;
+	// end (exclusive) of the range reserved by a parallel chunk
+	long end;
+	// an async upload can be aborted by the container while (or after) it is finished
+	AtomicBoolean finished = new AtomicBoolean();
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.file;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.vavr.Tuple;
+import io.vavr.collection.List;
+import io.vavr.collection.Seq;
+import io.vavr.control.Option;
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+
+@FieldDefaults(level=AccessLevel.PRIVATE, makeFinal=true)
+class BaseDirectories
+{
+	@NonNull
+	Seq<Path> paths;
+	@NonNull
+	PlacementPolicy placementPolicy;
+	AtomicInteger next = new AtomicInteger();
+	Map<Path,AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+	public static BaseDirectories of(@NonNull final String baseDirs, @NonNull final PlacementPolicy placementPolicy)
+	{
+		return new BaseDirectories(List.of(baseDirs.split(",")).map(d -> Paths.get(d.trim()).toAbsolutePath().normalize()),placementPolicy);
+	}
+
+	private BaseDirectories(@NonNull final Seq<Path> paths, @NonNull final PlacementPolicy placementPolicy)
+	{
+		this.paths = paths;
+		this.placementPolicy = placementPolicy;
+		paths.forEach(p -> inFlight.put(p,new AtomicInteger()));
+	}
+
+	public Path select(final long requiredSpace)
+	{
+		val usableSpace = paths.map(p -> Tuple.of(p,p.toFile().getUsableSpace()));
+		val candidates = usableSpace.filter(t -> t._2 > requiredSpace);
+		val baseDirs = candidates.isEmpty() ? usableSpace : candidates;
+		switch (placementPolicy)
+		{
+			case FREE_SPACE:
+				return baseDirs.maxBy(t -> t._2).get()._1;
+			case LEAST_IN_FLIGHT:
+				return baseDirs.minBy(t -> inFlight.get(t._1).get()).get()._1;
+			default:
+				return baseDirs.get(Math.floorMod(next.getAndIncrement(),baseDirs.size()))._1;
+		}
+	}
+
+	public Option<Path> find(@NonNull final Path file)
+	{
+		val path = file.toAbsolutePath().normalize();
+		return paths.find(p -> path.startsWith(p));
+	}
+
+	public boolean isBaseDir(final Path path)
+	{
+		return path != null && paths.contains(path.toAbsolutePath().normalize());
+	}
+
+	public String getRelativePath(@NonNull final Path file)
+	{
+		val path = file.toAbsolutePath().normalize();
+		val baseDir = find(path).getOrElseThrow(() -> new IllegalArgumentException(file + " is not located in a base directory"));
+		val result = baseDir.relativize(path).toString().replace(File.separatorChar,'/');
+		return paths.size() > 1 ? paths.indexOf(baseDir) + "/" + result : result;
+	}
+
+	public Option<Path> startIO(@NonNull final File file)
+	{
+		val result = find(file.toPath());
+		result.forEach(p -> inFlight.get(p).incrementAndGet());
+		return result;
+	}
+
+	public void endIO(@NonNull final Option<Path> baseDir)
+	{
+		baseDir.forEach(p -> inFlight.get(p).decrementAndGet());
+	}
+}
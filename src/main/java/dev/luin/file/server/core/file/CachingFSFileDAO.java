@@ -0,0 +1,127 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.file;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.vavr.control.Option;
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+
+@FieldDefaults(level=AccessLevel.PRIVATE, makeFinal=true)
+class CachingFSFileDAO implements FSFileDAO
+{
+	@NonNull
+	FSFileDAO fsFileDAO;
+	@NonNull
+	Cache<String,FSFile> cache;
+
+	public CachingFSFileDAO(@NonNull final FSFileDAO fsFileDAO, final long maximumSize, @NonNull final Duration expireAfterWrite)
+	{
+		this.fsFileDAO = fsFileDAO;
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(expireAfterWrite)
+				.build();
+	}
+
+	@Override
+	public boolean isAuthorized(@NonNull final String path, final long userId)
+	{
+		return findFile(path).exists(f -> f.getUserId() == userId);
+	}
+
+	@Override
+	public Option<FSFile> findFile(@NonNull final String path)
+	{
+		return Option.of(cache.get(path,p -> fsFileDAO.findFile(p).getOrNull()));
+	}
+
+	@Override
+	public List<String> selectFiles()
+	{
+		return fsFileDAO.selectFiles();
+	}
+
+	@Override
+	public List<FSFile> selectExpiredFiles(@NonNull final Instant now, final int limit)
+	{
+		return fsFileDAO.selectExpiredFiles(now,limit);
+	}
+
+	@Override
+	public FSFile insertFile(@NonNull final FSFile fsFile)
+	{
+		val result = fsFileDAO.insertFile(fsFile);
+		cache.invalidate(fsFile.getVirtualPath());
+		return result;
+	}
+
+	@Override
+	public long updateFile(@NonNull final FSFile fsFile)
+	{
+		val result = fsFileDAO.updateFile(fsFile);
+		cache.invalidate(fsFile.getVirtualPath());
+		return result;
+	}
+
+	@Override
+	public long updatePath(@NonNull final String virtualPath, @NonNull final String path)
+	{
+		val result = fsFileDAO.updatePath(virtualPath,path);
+		cache.invalidate(virtualPath);
+		return result;
+	}
+
+	@Override
+	public long deleteFile(@NonNull final String path)
+	{
+		val result = fsFileDAO.deleteFile(path);
+		cache.invalidate(path);
+		return result;
+	}
+
+	@Override
+	public boolean lockFile(@NonNull final String path, @NonNull final Instant now, @NonNull final Instant expired)
+	{
+		val result = fsFileDAO.lockFile(path,now,expired);
+		// the row may have been updated by another node, so it is read from the database while it is locked
+		if (result)
+			cache.invalidate(path);
+		return result;
+	}
+
+	@Override
+	public long unlockFile(@NonNull final String path)
+	{
+		return fsFileDAO.unlockFile(path);
+	}
+
+	@Override
+	public long deleteExpiredFiles(@NonNull final List<String> paths, @NonNull final Instant now)
+	{
+		val result = fsFileDAO.deleteExpiredFiles(paths,now);
+		cache.invalidateAll(paths);
+		return result;
+	}
+}
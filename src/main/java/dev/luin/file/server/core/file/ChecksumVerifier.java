@@ -0,0 +1,64 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.file;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.FieldDefaults;
+
+@FieldDefaults(level=AccessLevel.PRIVATE, makeFinal=true)
+@Getter
+class ChecksumVerifier
+{
+	@NonNull
+	Checksum checksum;
+	@NonNull
+	MessageDigest digest;
+	Digests digests;
+	long offset;
+
+	public ChecksumVerifier(@NonNull final Checksum checksum, @NonNull final UploadSession uploadSession) throws IOException
+	{
+		this.checksum = checksum;
+		try
+		{
+			this.digest = MessageDigest.getInstance(checksum.getAlgorithm());
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new IOException(e);
+		}
+		this.digests = uploadSession.getDigests() != null ? uploadSession.getDigests().copy() : null;
+		this.offset = uploadSession.getOffset();
+	}
+
+	public OutputStream verify(@NonNull final OutputStream output)
+	{
+		return new DigestOutputStream(output,digest);
+	}
+
+	public boolean isValid()
+	{
+		return MessageDigest.isEqual(digest.digest(),checksum.getValue());
+	}
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.file;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+
+import io.vavr.control.Try;
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+
+@FieldDefaults(level=AccessLevel.PRIVATE, makeFinal=true)
+class Digests
+{
+	MessageDigest md5;
+	MessageDigest sha256;
+
+	public static Digests of(@NonNull final File file, final long length) throws IOException
+	{
+		val result = new Digests();
+		try (val input = new FileInputStream(file); val output = result.digest(new NullOutputStream()))
+		{
+			IOUtils.copyLarge(input,output,0,length);
+		}
+		return result;
+	}
+
+	public Digests()
+	{
+		this(DigestUtils.getMd5Digest(),DigestUtils.getSha256Digest());
+	}
+
+	private Digests(@NonNull final MessageDigest md5, @NonNull final MessageDigest sha256)
+	{
+		this.md5 = md5;
+		this.sha256 = sha256;
+	}
+
+	public Digests copy()
+	{
+		return new Digests(copy(md5),copy(sha256));
+	}
+
+	public OutputStream digest(@NonNull final OutputStream output)
+	{
+		return new DigestOutputStream(new DigestOutputStream(output,sha256),md5);
+	}
+
+	public String getMd5Checksum()
+	{
+		return toHex(md5);
+	}
+
+	public String getSha256Checksum()
+	{
+		return toHex(sha256);
+	}
+
+	private static String toHex(final MessageDigest digest)
+	{
+		// digest() resets the state, so finalize a copy
+		return Hex.encodeHexString(copy(digest).digest());
+	}
+
+	private static MessageDigest copy(final MessageDigest digest)
+	{
+		return Try.of(() -> (MessageDigest)digest.clone()).get();
+	}
+}
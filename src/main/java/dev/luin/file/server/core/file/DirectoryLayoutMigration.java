@@ -0,0 +1,53 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.file;
+
+import java.time.Duration;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.PropertySource;
+
+import dev.luin.file.server.core.datasource.DataSourceConfig;
+import dev.luin.file.server.core.metrics.MetricsConfig;
+import dev.luin.file.server.core.querydsl.QueryDSLConfig;
+import dev.luin.file.server.core.transaction.TransactionManagerConfig;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Configuration
+@Import({
+	DataSourceConfig.class,
+	FileSystemConfig.class,
+	MetricsConfig.class,
+	QueryDSLConfig.class,
+	TransactionManagerConfig.class
+})
+@PropertySource(value = {"classpath:dev/luin/file/server/core/default.properties"}, ignoreResourceNotFound = true)
+public class DirectoryLayoutMigration
+{
+	public static void main(String[] args) throws InterruptedException
+	{
+		try (val context = new AnnotationConfigApplicationContext(DirectoryLayoutMigration.class))
+		{
+			val linkRetention = Duration.ofSeconds(context.getEnvironment().getRequiredProperty("file.cache.expireAfterWrite",Long.class));
+			val result = context.getBean(FileSystem.class).migrateDirectoryLayout(linkRetention);
+			log.info("Moved {} files into the directory layout",result);
+		}
+	}
+}
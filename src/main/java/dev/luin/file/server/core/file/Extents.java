@@ -0,0 +1,80 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.file;
+
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import lombok.AccessLevel;
+import lombok.val;
+import lombok.var;
+import lombok.experimental.FieldDefaults;
+
+@FieldDefaults(level=AccessLevel.PRIVATE, makeFinal=true)
+class Extents
+{
+	// first -> end (exclusive) of the received byte ranges, merged when they overlap or touch
+	NavigableMap<Long,Long> extents = new TreeMap<>();
+
+	public static Extents of(final long offset)
+	{
+		val result = new Extents();
+		result.add(0,offset);
+		return result;
+	}
+
+	public void add(final long first, final long end)
+	{
+		if (first >= end)
+			return;
+		var start = first;
+		var stop = end;
+		val previous = extents.floorEntry(start);
+		if (previous != null && previous.getValue() >= start)
+			start = previous.getKey();
+		var next = extents.ceilingEntry(start);
+		while (next != null && next.getKey() <= stop)
+		{
+			stop = Math.max(stop,next.getValue());
+			extents.remove(next.getKey());
+			next = extents.higherEntry(next.getKey());
+		}
+		extents.put(start,stop);
+	}
+
+	public boolean overlaps(final long first, final long end)
+	{
+		val extent = extents.lowerEntry(end);
+		return extent != null && extent.getValue() > first;
+	}
+
+	public long getOffset()
+	{
+		val first = extents.firstEntry();
+		return first != null && first.getKey() == 0 ? first.getValue() : 0;
+	}
+
+	public boolean isCompleted(final Long length)
+	{
+		return length != null && getOffset() >= length;
+	}
+
+	@Override
+	public String toString()
+	{
+		return extents.toString();
+	}
+}
@@ -51,6 +51,10 @@ public class FSFile
 	@With
 	Long length;
 	FileType type;
+	@With
+	Instant uploadExpires;
+	@With
+	Long uploadOffset;
 
 	File getFile()
 	{
@@ -67,8 +71,19 @@ public class FSFile
 		return Instant.ofEpochMilli(getFile().lastModified());
 	}
 
+	public long getOffset()
+	{
+		return uploadOffset != null ? uploadOffset : getFileLength();
+	}
+
 	public boolean isCompleted()
 	{
-		return length != null && length == getFileLength();
+		// checksums are only set on complete files, which saves the stat
+		return length != null && (sha256Checksum != null || length == getOffset());
+	}
+
+	public boolean isExpired()
+	{
+		return uploadExpires != null && uploadExpires.isBefore(Instant.now());
 	}
 }
@@ -15,6 +15,7 @@
  */
 package dev.luin.file.server.core.file;
 
+import java.time.Instant;
 import java.util.List;
 
 import io.vavr.control.Option;
@@ -25,7 +26,12 @@ interface FSFileDAO
 	boolean isAuthorized(@NonNull String path, long userId);
 	Option<FSFile> findFile(@NonNull String path);
 	List<String> selectFiles();
+	List<FSFile> selectExpiredFiles(@NonNull Instant now, int limit);
 	FSFile insertFile(@NonNull FSFile fsFile);
 	long updateFile(@NonNull FSFile fsFile);
+	long updatePath(@NonNull String virtualPath, @NonNull String path);
 	long deleteFile(@NonNull String path);
+	boolean lockFile(@NonNull String path, @NonNull Instant now, @NonNull Instant expired);
+	long unlockFile(@NonNull String path);
+	long deleteExpiredFiles(@NonNull List<String> paths, @NonNull Instant now);
 }
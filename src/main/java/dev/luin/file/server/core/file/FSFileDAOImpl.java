@@ -15,6 +15,7 @@
  */
 package dev.luin.file.server.core.file;
 
+import java.time.Instant;
 import java.util.List;
 
 import org.springframework.transaction.annotation.Transactional;
@@ -38,7 +39,7 @@ class FSFileDAOImpl implements FSFileDAO
 	@NonNull
 	SQLQueryFactory queryFactory;
 	QFile table = QFile.file;
-	Expression<?>[] fsFileColumns = {table.virtualPath,table.path,table.name,table.contentType,table.md5Checksum,table.sha256Checksum,table.timestamp,table.startDate,table.endDate,table.userId,table.length,table.type};
+	Expression<?>[] fsFileColumns = {table.virtualPath,table.path,table.name,table.contentType,table.md5Checksum,table.sha256Checksum,table.timestamp,table.startDate,table.endDate,table.userId,table.length,table.type,table.uploadExpires,table.uploadOffset};
 	ConstructorExpression<FSFile> fsFileProjection = Projections.constructor(FSFile.class,fsFileColumns);
 
 	@Override
@@ -68,6 +69,17 @@ class FSFileDAOImpl implements FSFileDAO
 				.fetch();
 	}
 
+	@Override
+	public List<FSFile> selectExpiredFiles(@NonNull final Instant now, final int limit)
+	{
+		return queryFactory.select(fsFileProjection)
+				.from(table)
+				.where(table.uploadExpires.lt(now))
+				.orderBy(table.uploadExpires.asc())
+				.limit(limit)
+				.fetch();
+	}
+
 	@Override
 	public FSFile insertFile(@NonNull final FSFile fsFile)
 	{
@@ -84,6 +96,8 @@ class FSFileDAOImpl implements FSFileDAO
 				.set(table.userId,fsFile.getUserId())
 				.set(table.length,fsFile.getLength())
 				.set(table.type,fsFile.getType())
+				.set(table.uploadExpires,fsFile.getUploadExpires())
+				.set(table.uploadOffset,fsFile.getUploadOffset())
 				.execute();
 		return fsFile;
 	}
@@ -95,10 +109,21 @@ class FSFileDAOImpl implements FSFileDAO
 				.set(table.md5Checksum,fsFile.getMd5Checksum())
 				.set(table.sha256Checksum,fsFile.getSha256Checksum())
 				.set(table.length,fsFile.getLength())
+				.set(table.uploadExpires,fsFile.getUploadExpires())
+				.set(table.uploadOffset,fsFile.getUploadOffset())
 				.where(table.virtualPath.eq(fsFile.getVirtualPath()))
 				.execute();
 	}
 
+	@Override
+	public long updatePath(@NonNull final String virtualPath, @NonNull final String path)
+	{
+		return queryFactory.update(table)
+				.set(table.path,path)
+				.where(table.virtualPath.eq(virtualPath))
+				.execute();
+	}
+
 	@Override
 	public long deleteFile(@NonNull final String path)
 	{
@@ -106,4 +131,30 @@ class FSFileDAOImpl implements FSFileDAO
 				.where(table.virtualPath.eq(path))
 				.execute();
 	}
+
+	@Override
+	public boolean lockFile(@NonNull final String path, @NonNull final Instant now, @NonNull final Instant expired)
+	{
+		return queryFactory.update(table)
+				.set(table.uploadLocked,now)
+				.where(table.virtualPath.eq(path).and(table.uploadLocked.isNull().or(table.uploadLocked.lt(expired))))
+				.execute() > 0;
+	}
+
+	@Override
+	public long unlockFile(@NonNull final String path)
+	{
+		return queryFactory.update(table)
+				.setNull(table.uploadLocked)
+				.where(table.virtualPath.eq(path))
+				.execute();
+	}
+
+	@Override
+	public long deleteExpiredFiles(@NonNull final List<String> paths, @NonNull final Instant now)
+	{
+		return queryFactory.delete(table)
+				.where(table.virtualPath.in(paths).and(table.uploadExpires.lt(now)))
+				.execute();
+	}
 }
@@ -22,20 +22,30 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import javax.activation.DataSource;
 
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CountingOutputStream;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.commons.lang3.StringUtils;
 
 import dev.luin.file.server.core.service.model.FileDataSource;
 import io.vavr.Function1;
+import io.vavr.collection.Seq;
 import io.vavr.control.Option;
 import io.vavr.control.Try;
 import lombok.AccessLevel;
@@ -58,10 +68,25 @@ public class FileSystem
 	FSFileDAO fsFileDAO;
 	@NonNull
 	SecurityManager securityManager;
+	@NonNull
+	UploadSessions uploadSessions;
+	@NonNull
+	FileSystemMetrics metrics;
 	int virtualPathLength;
 	@NonNull
-	String baseDir;
+	BaseDirectories baseDirectories;
 	int filenameLength;
+	int directoryDepth;
+	int directoryWidth;
+	@NonNull
+	Duration uploadExpireAfter;
+	@NonNull
+	Preallocation preallocation;
+	@NonNull
+	UploadLockMode uploadLockMode;
+	@NonNull
+	Duration uploadLockTimeout;
+	boolean parallelUploads;
 
 	public String createVirtualPath()
 	{
@@ -104,13 +129,17 @@ public class FileSystem
 			@NonNull final InputStream content) throws IOException
 	{
 		val virtualPath = createVirtualPath();
-		val path = createRandomFile().get();
+		val path = createRandomFile(0).get();
 		val file = getFile.apply(path);
-		Try.of(() -> write(content,file)).getOrElseThrow(e -> new IOException("Error writing to file " + path,e));
-		val calculatedSha256Checksum = calculateSha256Checksum(file);
+		val digests = new Digests();
+		val sample = metrics.start();
+		val length = Try.of(() -> write(content,file,digests)).getOrElseThrow(e -> new IOException("Error writing to file " + path,e));
+		sample.stop(metrics.getCreateTimer());
+		metrics.getCreatedBytes().increment(length);
+		val calculatedSha256Checksum = digests.getSha256Checksum();
 		if (validateChecksum(sha256checksum,calculatedSha256Checksum))
 		{
-			val md5Checksum = calculateMd5Checksum(file);
+			val md5Checksum = digests.getMd5Checksum();
 			val result = FSFile.builder()
 					.virtualPath(virtualPath)
 					.path(path)
@@ -136,9 +165,23 @@ public class FileSystem
 			@NonNull final String contentType,
 			final Long fileLength,
 			@NonNull final Long userId) throws IOException
+	{
+		return createEmptyFile(filename,contentType,fileLength,userId,null);
+	}
+
+	public FSFile createEmptyFile(
+			final String filename,
+			@NonNull final String contentType,
+			final Long fileLength,
+			@NonNull final Long userId,
+			final FileType type) throws IOException
 	{
 		val virtualPath = createVirtualPath();
-		val Path = createRandomFile().get();
+		val Path = createRandomFile(fileLength != null ? fileLength : 0).get();
+		if (fileLength != null && preallocation != Preallocation.NONE)
+			preallocate(getFile.apply(Path),fileLength);
+		// the file length is not the offset of a preallocated or parallel upload
+		val tracked = fileLength != null && (preallocation != Preallocation.NONE || parallelUploads);
 		val result = FSFile.builder()
 				.virtualPath(virtualPath)
 				.path(Path)
@@ -147,6 +190,58 @@ public class FileSystem
 				.timestamp(Instant.now())
 				.userId(userId)
 				.length(fileLength)
+				.type(type)
+				.uploadExpires(uploadExpireAfter.isZero() ? null : Instant.now().plus(uploadExpireAfter))
+				.uploadOffset(tracked ? 0L : null)
+				.build();
+		fsFileDAO.insertFile(result);
+		return result;
+	}
+
+	public FSFile concatenateFiles(
+			final String filename,
+			@NonNull final String contentType,
+			@NonNull final Long userId,
+			@NonNull final Seq<FSFile> partialFiles) throws IOException
+	{
+		val incompleteFile = partialFiles.find(f -> f.getType() != FileType.PARTIAL || !f.isCompleted() || !f.getFile().exists());
+		if (incompleteFile.isDefined())
+			throw new FileNotFoundException(incompleteFile.get().getVirtualPath());
+		val virtualPath = createVirtualPath();
+		val length = partialFiles.map(f -> f.getLength()).sum().longValue();
+		val path = createRandomFile(length).get();
+		val file = getFile.apply(path);
+		val digests = new Digests();
+		val sample = metrics.start();
+		val baseDir = baseDirectories.startIO(file);
+		// the final checksums have to be calculated over all data, so the parts are copied in a single pass through the digests
+		try (val output = digests.digest(new FileOutputStream(file)))
+		{
+			for (val partialFile : partialFiles)
+				Files.copy(partialFile.getFile().toPath(),output);
+		}
+		catch (IOException e)
+		{
+			file.delete();
+			throw new IOException("Error concatenating file " + virtualPath,e);
+		}
+		finally
+		{
+			baseDirectories.endIO(baseDir);
+			sample.stop(metrics.getCreateTimer());
+		}
+		metrics.getCreatedBytes().increment(length);
+		val result = FSFile.builder()
+				.virtualPath(virtualPath)
+				.path(path)
+				.name(filename)
+				.contentType(contentType)
+				.md5Checksum(digests.getMd5Checksum())
+				.sha256Checksum(digests.getSha256Checksum())
+				.timestamp(Instant.now())
+				.userId(userId)
+				.length(length)
+				.type(FileType.FINAL)
 				.build();
 		fsFileDAO.insertFile(result);
 		return result;
@@ -154,24 +249,403 @@ public class FileSystem
 
 	public FSFile append(@NonNull final FSFile fsFile, @NonNull final InputStream input, final Long length) throws IOException
 	{
-		val file = fsFile.getFile();
-		if (!file.exists() || fsFile.isCompleted())
-			throw new FileNotFoundException(fsFile.getVirtualPath());
-		try (val output = new FileOutputStream(file,true))
+		return append(fsFile,null,input,length,null);
+	}
+
+	public FSFile append(@NonNull final FSFile fsFile, final Long offset, @NonNull final InputStream input, final Long length, final Checksum checksum) throws IOException
+	{
+		val appender = startAppend(fsFile,offset,length,checksum);
+		try
 		{
 			if (length != null)
-				IOUtils.copyLarge(input,output,0,length);
+				IOUtils.copyLarge(input,appender.getOutput(),0,length);
 			else
-				IOUtils.copyLarge(input,output);
-			if (fsFile.isCompleted())
+				IOUtils.copyLarge(input,appender.getOutput());
+		}
+		catch (IOException e)
+		{
+			abortAppend(appender);
+			throw e;
+		}
+		return finishAppend(appender);
+	}
+
+	public Appender startAppend(@NonNull final FSFile fsFile) throws IOException
+	{
+		return startAppend(fsFile,null,null,null);
+	}
+
+	public Appender startAppend(@NonNull final FSFile fsFile, final Long offset, final Long length, final Checksum checksum) throws IOException
+	{
+		if (isParallel(fsFile))
+			return startParallelAppend(fsFile,offset,length,checksum);
+		val uploadSession = lock(fsFile);
+		try
+		{
+			if (isCompleted(fsFile,uploadSession))
+				throw new FileNotFoundException(fsFile.getVirtualPath());
+			if (offset != null && offset != uploadSession.getOffset())
+				throw new UploadConflictException("File " + fsFile.getVirtualPath() + " is at offset " + uploadSession.getOffset() + ", not " + offset);
+			val digests = uploadSessions.getDigests(fsFile,uploadSession);
+			val verifier = checksum != null ? Option.of(new ChecksumVerifier(checksum,uploadSession)) : Option.<ChecksumVerifier>none();
+			val baseDir = baseDirectories.startIO(fsFile.getFile());
+			try
 			{
-				val result = completeFile(fsFile);
+				val output = digests.digest(limit(fsFile,openOutput(fsFile,uploadSession.getOffset()),uploadSession.getOffset()));
+				return new Appender(fsFile,uploadSession,new CountingOutputStream(verifier.map(v -> v.verify(output)).getOrElse(output)),baseDir,metrics.start(),verifier,uploadSession.getOffset(),uploadSession.getOffset());
+			}
+			catch (IOException e)
+			{
+				baseDirectories.endIO(baseDir);
+				throw e;
+			}
+		}
+		catch (IOException | RuntimeException e)
+		{
+			unlock(fsFile,uploadSession);
+			throw e;
+		}
+	}
+
+	private Appender startParallelAppend(final FSFile fsFile, final Long offset, final Long length, final Checksum checksum) throws IOException
+	{
+		val uploadSession = uploadSessions.lock(fsFile);
+		val first = offset != null ? offset : uploadSession.getOffset();
+		val end = length != null ? Math.min(first + length,fsFile.getLength()) : fsFile.getLength();
+		try
+		{
+			addWriter(fsFile,uploadSession,first,end);
+		}
+		finally
+		{
+			uploadSessions.unlock(fsFile,uploadSession);
+		}
+		try
+		{
+			val verifier = checksum != null ? Option.of(new ChecksumVerifier(checksum,uploadSession)) : Option.<ChecksumVerifier>none();
+			val baseDir = baseDirectories.startIO(fsFile.getFile());
+			try
+			{
+				// the chunk cannot write beyond the range it reserved
+				val output = new LimitedOutputStream(openOutput(fsFile,first),fsFile.getVirtualPath(),end - first);
+				return new Appender(fsFile,uploadSession,new CountingOutputStream(verifier.map(v -> v.verify(output)).getOrElse(output)),baseDir,metrics.start(),verifier,first,end);
+			}
+			catch (IOException e)
+			{
+				baseDirectories.endIO(baseDir);
+				throw e;
+			}
+		}
+		catch (IOException | RuntimeException e)
+		{
+			uploadSession.getLock().acquireUninterruptibly();
+			uploadSession.getWriters().remove(first,end);
+			uploadSessions.unlock(fsFile,uploadSession);
+			throw e;
+		}
+	}
+
+	private void addWriter(final FSFile fsFile, final UploadSession uploadSession, final long first, final long end) throws IOException
+	{
+		// a completed session is kept until it expires, so a chunk cannot change the file once its digests have been calculated
+		if (isCompleted(fsFile,uploadSession))
+			throw new FileNotFoundException(fsFile.getVirtualPath());
+		if (first > fsFile.getLength())
+			throw new UploadConflictException("Offset " + first + " is beyond the length of file " + fsFile.getVirtualPath());
+		// a chunk that fails leaves its data in the file, so it must not overlap data that has been received or is being written
+		if (uploadSession.getExtents().overlaps(first,end) || uploadSession.isWriting(first,end))
+			throw new UploadConflictException("Range " + first + "-" + end + " of file " + fsFile.getVirtualPath() + " has already been received or is being uploaded");
+		if (first < end)
+			uploadSession.getWriters().put(first,end);
+	}
+
+	public FSFile finishAppend(@NonNull final Appender appender) throws IOException
+	{
+		if (!appender.getFinished().compareAndSet(false,true))
+			throw new IOException("Append to file " + appender.getFsFile().getVirtualPath() + " has already been aborted");
+		if (isParallel(appender.getFsFile()))
+			return finishParallelAppend(appender);
+		val fsFile = appender.getFsFile();
+		val uploadSession = appender.getUploadSession();
+		try
+		{
+			try
+			{
+				appender.getOutput().close();
+			}
+			catch (IOException e)
+			{
+				uploadSessions.remove(fsFile.getVirtualPath());
+				throw e;
+			}
+			finally
+			{
+				endAppend(appender);
+			}
+			val verifier = appender.getVerifier().filter(v -> !v.isValid());
+			if (verifier.isDefined())
+			{
+				rollback(fsFile,uploadSession,verifier.get());
+				throw new ChecksumMismatchException("Checksum error for file " + fsFile.getVirtualPath() + " at offset " + verifier.get().getOffset());
+			}
+			val offset = uploadSession.getOffset() + appender.getOutput().getByteCount();
+			uploadSession.setOffset(offset);
+			val newFile = fsFile.getUploadOffset() != null ? fsFile.withUploadOffset(offset) : fsFile;
+			if (isCompleted(newFile,uploadSession))
+			{
+				val result = completeFile(newFile,uploadSession.getDigests());
 				fsFileDAO.updateFile(result);
+				uploadSessions.remove(fsFile.getVirtualPath());
 				return result;
 			}
 			else
-				return fsFile;
+			{
+				// the file length of a preallocated file is not the offset, so it is stored
+				if (newFile.getUploadOffset() != null)
+					fsFileDAO.updateFile(newFile);
+				return newFile;
+			}
+		}
+		finally
+		{
+			unlock(fsFile,uploadSession);
+		}
+	}
+
+	private FSFile finishParallelAppend(final Appender appender) throws IOException
+	{
+		val fsFile = appender.getFsFile();
+		val uploadSession = appender.getUploadSession();
+		try
+		{
+			appender.getOutput().close();
+		}
+		catch (IOException e)
+		{
+			removeWriter(appender,false);
+			throw e;
+		}
+		finally
+		{
+			endAppend(appender);
+		}
+		val valid = !appender.getVerifier().exists(v -> !v.isValid());
+		val result = removeWriter(appender,valid);
+		if (!valid)
+			throw new ChecksumMismatchException("Checksum error for file " + fsFile.getVirtualPath() + " at offset " + appender.getOffset());
+		return result;
+	}
+
+	private FSFile removeWriter(final Appender appender, final boolean written) throws IOException
+	{
+		val fsFile = appender.getFsFile();
+		val uploadSession = appender.getUploadSession();
+		// only the bookkeeping is serialized, the chunks themselves are written in parallel
+		uploadSession.getLock().acquireUninterruptibly();
+		try
+		{
+			uploadSession.getWriters().remove(appender.getOffset(),appender.getEnd());
+			val extents = uploadSession.getExtents();
+			if (written)
+				extents.add(appender.getOffset(),appender.getOffset() + appender.getOutput().getByteCount());
+			// the last running chunk completes the file, so no chunk can change it after its digests have been calculated
+			if (extents.getOffset() == uploadSession.getOffset() || extents.isCompleted(fsFile.getLength()) && !uploadSession.getWriters().isEmpty())
+				return fsFile.withUploadOffset(uploadSession.getOffset());
+			val newFile = fsFile.withUploadOffset(extents.getOffset());
+			if (extents.isCompleted(newFile.getLength()))
+			{
+				try
+				{
+					// the data did not arrive in order, so the digests are calculated once over the whole file
+					val sample = metrics.start();
+					val digests = Digests.of(newFile.getFile(),newFile.getLength());
+					sample.stop(metrics.getChecksumTimer());
+					val result = completeFile(newFile,digests);
+					fsFileDAO.updateFile(result);
+					// the session is completed now and rejects chunks that arrive late
+					uploadSession.setOffset(extents.getOffset());
+					return result;
+				}
+				catch (IOException | RuntimeException e)
+				{
+					uploadSessions.remove(fsFile.getVirtualPath());
+					throw e;
+				}
+			}
+			fsFileDAO.updateFile(newFile);
+			uploadSession.setOffset(extents.getOffset());
+			return newFile;
+		}
+		finally
+		{
+			uploadSessions.unlock(fsFile,uploadSession);
+		}
+	}
+
+	public void abortAppend(@NonNull final Appender appender)
+	{
+		if (!appender.getFinished().compareAndSet(false,true))
+			return;
+		IOUtils.closeQuietly(appender.getOutput(),e -> log.error("",e));
+		endAppend(appender);
+		if (isParallel(appender.getFsFile()))
+			Try.of(() -> removeWriter(appender,false)).onFailure(t -> log.error("Error completing file " + appender.getFsFile().getVirtualPath(),t));
+		else
+		{
+			uploadSessions.remove(appender.getFsFile().getVirtualPath());
+			unlock(appender.getFsFile(),appender.getUploadSession());
+		}
+	}
+
+	public boolean isValidOffset(@NonNull final FSFile fsFile, final long offset)
+	{
+		return isParallel(fsFile) ? offset <= fsFile.getLength() : offset == getOffset(fsFile);
+	}
+
+	private boolean isParallel(final FSFile fsFile)
+	{
+		return parallelUploads && fsFile.getLength() != null && fsFile.getUploadOffset() != null;
+	}
+
+	private UploadSession lock(final FSFile fsFile) throws IOException
+	{
+		val result = uploadSessions.tryLock(fsFile);
+		// only this node appends to the upload, so its session holds the offset
+		if (uploadLockMode != UploadLockMode.DATABASE)
+			return result;
+		val now = Instant.now();
+		val locked = Try.of(() -> fsFileDAO.lockFile(fsFile.getVirtualPath(),now,now.minus(uploadLockTimeout)));
+		if (!locked.getOrElse(false))
+		{
+			uploadSessions.unlock(fsFile,result);
+			throw locked.isFailure()
+					? new IOException("Error locking file " + fsFile.getVirtualPath(),locked.getCause())
+					: new UploadConflictException("File " + fsFile.getVirtualPath() + " is being uploaded");
+		}
+		try
+		{
+			// another node may have appended to the file since this session was created
+			resync(result,getStoredOffset(fsFile));
+			return result;
+		}
+		catch (IOException | RuntimeException e)
+		{
+			unlock(fsFile,result);
+			throw e;
+		}
+	}
+
+	private long getStoredOffset(final FSFile fsFile) throws IOException
+	{
+		// lockFile evicted the cached row, so this reads the offset stored by the node that appended last (or the file length)
+		return fsFileDAO.findFile(fsFile.getVirtualPath())
+				.map(f -> f.getOffset())
+				.getOrElseThrow(() -> new FileNotFoundException(fsFile.getVirtualPath()));
+	}
+
+	private void resync(final UploadSession uploadSession, final long offset)
+	{
+		if (uploadSession.getOffset() != offset)
+		{
+			uploadSession.setOffset(offset);
+			uploadSession.setDigests(null);
+		}
+	}
+
+	private void unlock(final FSFile fsFile, final UploadSession uploadSession)
+	{
+		if (uploadLockMode == UploadLockMode.DATABASE)
+			Try.of(() -> fsFileDAO.unlockFile(fsFile.getVirtualPath())).onFailure(t -> log.error("Error unlocking file " + fsFile.getVirtualPath(),t));
+		uploadSessions.unlock(fsFile,uploadSession);
+	}
+
+	public long getOffset(@NonNull final FSFile fsFile)
+	{
+		if (fsFile.getSha256Checksum() != null)
+			return fsFile.getLength();
+		return uploadSessions.get(fsFile).getOffset();
+	}
+
+	public boolean isCompleted(@NonNull final FSFile fsFile)
+	{
+		return fsFile.getSha256Checksum() != null || isCompleted(fsFile,uploadSessions.get(fsFile));
+	}
+
+	private boolean isCompleted(final FSFile fsFile, final UploadSession uploadSession)
+	{
+		return fsFile.getSha256Checksum() != null || uploadSession.isCompleted(fsFile.getLength());
+	}
+
+	private OutputStream openOutput(final FSFile fsFile, final long offset) throws IOException
+	{
+		// no CREATE, a file that has been removed must not silently restart at 0
+		if (fsFile.getUploadOffset() == null)
+			return Channels.newOutputStream(FileChannel.open(fsFile.getFile().toPath(),StandardOpenOption.WRITE,StandardOpenOption.APPEND));
+		val output = FileChannel.open(fsFile.getFile().toPath(),StandardOpenOption.WRITE);
+		try
+		{
+			return Channels.newOutputStream(output.position(offset));
+		}
+		catch (IOException e)
+		{
+			output.close();
+			throw e;
+		}
+	}
+
+	private OutputStream limit(final FSFile fsFile, final OutputStream output, final long offset)
+	{
+		// without a Content-Length the chunk is only limited by the length of the file
+		return fsFile.getLength() != null ? new LimitedOutputStream(output,fsFile.getVirtualPath(),fsFile.getLength() - offset) : output;
+	}
+
+	private void preallocate(final File file, final long length) throws IOException
+	{
+		val baseDir = baseDirectories.startIO(file);
+		try (val output = new RandomAccessFile(file,"rw"))
+		{
+			if (preallocation == Preallocation.FULL)
+			{
+				val buffer = new byte[64 * 1024];
+				for (long i = 0; i < length; i += buffer.length)
+					output.write(buffer,0,(int)Math.min(buffer.length,length - i));
+			}
+			else
+				output.setLength(length);
+		}
+		catch (IOException e)
+		{
+			file.delete();
+			throw new IOException("Error preallocating file " + file,e);
 		}
+		finally
+		{
+			baseDirectories.endIO(baseDir);
+		}
+	}
+
+	private void rollback(final FSFile fsFile, final UploadSession uploadSession, final ChecksumVerifier verifier) throws IOException
+	{
+		// a preallocated file keeps its length, only its stored offset counts
+		if (fsFile.getUploadOffset() == null)
+			try (val output = FileChannel.open(fsFile.getFile().toPath(),StandardOpenOption.WRITE))
+			{
+				output.truncate(verifier.getOffset());
+			}
+			catch (IOException e)
+			{
+				uploadSessions.remove(fsFile.getVirtualPath());
+				throw e;
+			}
+		uploadSession.setDigests(verifier.getDigests());
+		uploadSession.setOffset(verifier.getOffset());
+	}
+
+	private void endAppend(final Appender appender)
+	{
+		appender.getSample().stop(metrics.getAppendTimer());
+		metrics.getAppendedBytes().increment(appender.getOutput().getByteCount());
+		baseDirectories.endIO(appender.getBaseDir());
 	}
 
 	public long write(@NonNull final FSFile fsFile, @NonNull final OutputStream output) throws IOException
@@ -179,9 +653,16 @@ public class FileSystem
 		val file = fsFile.getFile();
 		if (!file.exists() || !fsFile.isCompleted())
 			throw new FileNotFoundException(fsFile.getVirtualPath());
+		val baseDir = baseDirectories.startIO(file);
+		val sample = metrics.start();
 		try (val input = new FileInputStream(file))
 		{
-			return IOUtils.copyLarge(input,output);
+			return written(IOUtils.copyLarge(input,output));
+		}
+		finally
+		{
+			sample.stop(metrics.getWriteTimer());
+			baseDirectories.endIO(baseDir);
 		}
 	}
 
@@ -190,9 +671,100 @@ public class FileSystem
 		val file = fsFile.getFile();
 		if (!file.exists() || !fsFile.isCompleted())
 			throw new FileNotFoundException(fsFile.getVirtualPath());
-		try (val input = new FileInputStream(file))
+		val baseDir = baseDirectories.startIO(file);
+		val sample = metrics.start();
+		try (val input = FileChannel.open(file.toPath(),StandardOpenOption.READ))
 		{
-			return IOUtils.copyLarge(input,output,first,length);
+			input.position(first);
+			return written(IOUtils.copyLarge(Channels.newInputStream(input),output,0,length));
+		}
+		finally
+		{
+			sample.stop(metrics.getWriteTimer());
+			baseDirectories.endIO(baseDir);
+		}
+	}
+
+	public long write(@NonNull final FileChannel input, @NonNull final OutputStream output, final long first, final long length) throws IOException
+	{
+		val sample = metrics.start();
+		try
+		{
+			input.position(first);
+			return written(IOUtils.copyLarge(Channels.newInputStream(input),output,0,length));
+		}
+		finally
+		{
+			sample.stop(metrics.getWriteTimer());
+		}
+	}
+
+	public FileChannel openChannel(@NonNull final FSFile fsFile) throws IOException
+	{
+		val file = fsFile.getFile();
+		if (!file.exists() || !fsFile.isCompleted())
+			throw new FileNotFoundException(fsFile.getVirtualPath());
+		return FileChannel.open(file.toPath(),StandardOpenOption.READ);
+	}
+
+	public String getCanonicalPath(@NonNull final FSFile fsFile) throws IOException
+	{
+		val file = fsFile.getFile();
+		if (!file.exists() || !fsFile.isCompleted())
+			throw new FileNotFoundException(fsFile.getVirtualPath());
+		return file.getCanonicalPath();
+	}
+
+	public String getRelativePath(@NonNull final FSFile fsFile) throws IOException
+	{
+		val file = fsFile.getFile();
+		if (!file.exists() || !fsFile.isCompleted())
+			throw new FileNotFoundException(fsFile.getVirtualPath());
+		return baseDirectories.getRelativePath(file.toPath());
+	}
+
+	public int migrateDirectoryLayout(@NonNull final Duration linkRetention) throws InterruptedException
+	{
+		val sources = new ArrayList<Path>();
+		for (val virtualPath : fsFileDAO.selectFiles())
+		{
+			val fsFile = fsFileDAO.findFile(virtualPath);
+			// running uploads write to (and complete) the path they were started with, so only completed files are moved
+			if (fsFile.isDefined() && fsFile.get().getSha256Checksum() != null)
+				Try.of(() -> migrateFile(fsFile.get())).onFailure(t -> log.error("Error migrating file " + virtualPath,t)).forEach(s -> s.forEach(sources::add));
+		}
+		if (!sources.isEmpty())
+		{
+			// servers resolve the old paths from their cached FSFiles until these expire
+			log.info("Keeping the old links of {} files for {}",sources.size(),linkRetention);
+			Thread.sleep(linkRetention.toMillis());
+			for (val source : sources)
+				Try.run(() -> Files.delete(source)).onFailure(t -> log.error("Error deleting old link " + source,t));
+		}
+		return sources.size();
+	}
+
+	public int deleteExpiredFiles(final int batchSize)
+	{
+		var result = 0;
+		while (true)
+		{
+			val now = Instant.now();
+			val files = fsFileDAO.selectExpiredFiles(now,batchSize);
+			if (files.isEmpty())
+				return result;
+			val paths = files.stream().map(f -> f.getVirtualPath()).collect(Collectors.toList());
+			val deleted = fsFileDAO.deleteExpiredFiles(paths,now);
+			// uploads completed in the meantime are no longer expired and must be kept on disk
+			val expiredFiles = deleted == files.size() ? files : files.stream().filter(f -> fsFileDAO.findFile(f.getVirtualPath()).isEmpty()).collect(Collectors.toList());
+			for (val fsFile : expiredFiles)
+			{
+				Try.of(() -> Files.deleteIfExists(fsFile.getFile().toPath())).onFailure(t -> log.error("Error deleting expired file " + fsFile.getVirtualPath(),t));
+				uploadSessions.remove(fsFile.getVirtualPath());
+			}
+			result += expiredFiles.size();
+			if (files.size() < batchSize)
+				return result;
 		}
 	}
 
@@ -200,7 +772,10 @@ public class FileSystem
 	{
 		val result = Try.of(() -> fsFile.getFile().delete()).onFailure(t -> log.error("",t));
 		if (force || result.isSuccess())
+		{
 			fsFileDAO.deleteFile(fsFile.getVirtualPath());
+			uploadSessions.remove(fsFile.getVirtualPath());
+		}
 		return force || result.getOrElse(false);
 	}
 
@@ -211,15 +786,17 @@ public class FileSystem
 				&& fsFile.getEndDate() == null || fsFile.getEndDate().compareTo(now) > 0);
 	}
 
-	private Try<String> createRandomFile()
+	private Try<String> createRandomFile(final long requiredSpace)
 	{
 		var result = (Path)null;
 		try
 		{
+			val baseDir = baseDirectories.select(requiredSpace);
 			while (true)
 			{
 				val filename = RandomStringUtils.randomNumeric(filenameLength);
-				result = Paths.get(baseDir,filename);
+				result = getDirectory(baseDir,filename).resolve(filename);
+				Files.createDirectories(result.getParent());
 				if (result.toFile().createNewFile())
 					return Try.success(result.toString());
 			}
@@ -230,43 +807,64 @@ public class FileSystem
 		}
 	}
 
-	private long write(final InputStream input, final File file) throws IOException
+	private Path getDirectory(final Path baseDir, final String filename)
 	{
-		try (val output = new FileOutputStream(file))
-		{
-			return IOUtils.copyLarge(input,output);
-		}
+		val hash = DigestUtils.md5Hex(filename);
+		var result = baseDir;
+		for (int i = 0; i < directoryDepth; i++)
+			result = result.resolve(hash.substring(i * directoryWidth,(i + 1) * directoryWidth));
+		return result;
 	}
 
-	private String calculateMd5Checksum(File file) throws IOException
+	private Option<Path> migrateFile(final FSFile fsFile) throws IOException
 	{
-		try (val is = new FileInputStream(file))
+		val source = Paths.get(fsFile.getPath()).toAbsolutePath().normalize();
+		if (!baseDirectories.isBaseDir(source.getParent()) || !source.toFile().exists())
+			return Option.none();
+		val target = getDirectory(source.getParent(),source.getFileName().toString()).resolve(source.getFileName());
+		if (source.equals(target))
+			return Option.none();
+		Files.createDirectories(target.getParent());
+		// link first, so the old path stays valid until it is deleted by migrateDirectoryLayout
+		Files.createLink(target,source);
+		fsFileDAO.updatePath(fsFile.getVirtualPath(),target.toString());
+		return Option.of(source);
+	}
+
+	private long write(final InputStream input, final File file, final Digests digests) throws IOException
+	{
+		val baseDir = baseDirectories.startIO(file);
+		try (val output = digests.digest(new FileOutputStream(file)))
+		{
+			return IOUtils.copyLarge(input,output);
+		}
+		finally
 		{
-			return DigestUtils.md5Hex(is);
+			baseDirectories.endIO(baseDir);
 		}
 	}
 
-	private boolean validateChecksum(final String checksum, final String calculatedChecksum)
+	private long written(final long count)
 	{
-		return StringUtils.isEmpty(checksum) || checksum.equalsIgnoreCase(calculatedChecksum);
+		metrics.getWrittenBytes().increment(count);
+		return count;
 	}
 
-	private String calculateSha256Checksum(final File file) throws IOException
+	private boolean validateChecksum(final String checksum, final String calculatedChecksum)
 	{
-		try (val is = new FileInputStream(file))
-		{
-			return DigestUtils.sha256Hex(is);
-		}
+		return StringUtils.isEmpty(checksum) || checksum.equalsIgnoreCase(calculatedChecksum);
 	}
 
-	private FSFile completeFile(@NonNull final FSFile fsFile) throws IOException
+	private FSFile completeFile(@NonNull final FSFile fsFile, @NonNull final Digests digests) throws IOException
 	{
 		val file = fsFile.getFile();
 		if (!file.exists())// || !fsFile.isCompleted())
 			throw new FileNotFoundException(fsFile.getVirtualPath());
 		val result = fsFile
-				.withSha256Checksum(calculateSha256Checksum(file))
-				.withMd5Checksum(calculateMd5Checksum(file));
+				.withSha256Checksum(digests.getSha256Checksum())
+				.withMd5Checksum(digests.getMd5Checksum())
+				.withUploadExpires(null)
+				.withUploadOffset(null);
 		return result;
 	}
 }
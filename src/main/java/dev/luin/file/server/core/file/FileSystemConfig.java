@@ -15,6 +15,8 @@
  */
 package dev.luin.file.server.core.file;
 
+import java.time.Duration;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -22,7 +24,9 @@ import org.springframework.context.annotation.Configuration;
 
 import com.querydsl.sql.SQLQueryFactory;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.AccessLevel;
+import lombok.val;
 import lombok.experimental.FieldDefaults;
 
 @Configuration
@@ -33,25 +37,64 @@ public class FileSystemConfig
 	int virtualPathLength;
 	@Value("${file.baseDir}")
 	String baseDir;
+	@Value("${file.placementPolicy}")
+	PlacementPolicy placementPolicy;
 	@Value("${file.filenameLength}")
 	int filenameLength;
+	@Value("${file.directoryDepth}")
+	int directoryDepth;
+	@Value("${file.directoryWidth}")
+	int directoryWidth;
+	@Value("${file.upload.preallocation}")
+	Preallocation preallocation;
+	@Value("${file.upload.lock}")
+	UploadLockMode uploadLockMode;
+	@Value("${file.upload.lockTimeout}")
+	long uploadLockTimeout;
+	@Value("${file.upload.parallel}")
+	boolean parallelUploads;
+	@Value("${file.upload.expireAfter}")
+	long uploadExpireAfter;
+	@Value("${file.upload.sessionExpireAfterAccess}")
+	long uploadSessionExpireAfterAccess;
+	@Value("${file.cache.maximumSize}")
+	long cacheMaximumSize;
+	@Value("${file.cache.expireAfterWrite}")
+	long cacheExpireAfterWrite;
 	@Autowired
 	SQLQueryFactory queryFactory;
+	@Autowired
+	MeterRegistry meterRegistry;
 
 	@Bean
 	public FileSystem fileSystem()
 	{
+		val metrics = new FileSystemMetrics(meterRegistry);
 		return FileSystem.builder()
 				.fsFileDAO(fsFileDAO())
 				.securityManager(new SecurityManager(fsFileDAO()))
+				.uploadSessions(new UploadSessions(metrics,Duration.ofSeconds(uploadSessionExpireAfterAccess)))
+				.metrics(metrics)
 				.virtualPathLength(virtualPathLength)
-				.baseDir(baseDir)
+				.baseDirectories(BaseDirectories.of(baseDir,placementPolicy))
 				.filenameLength(filenameLength)
+				.directoryDepth(directoryDepth)
+				.directoryWidth(directoryWidth)
+				.uploadExpireAfter(Duration.ofSeconds(uploadExpireAfter))
+				.preallocation(preallocation)
+				.uploadLockMode(uploadLockMode)
+				.uploadLockTimeout(Duration.ofSeconds(uploadLockTimeout))
+				.parallelUploads(parallelUploads)
 				.build();
 	}
 
 	@Bean
 	public FSFileDAO fsFileDAO()
+	{
+		return new CachingFSFileDAO(fsFileDAOImpl(),cacheMaximumSize,Duration.ofSeconds(cacheExpireAfterWrite));
+	}
+
+	private FSFileDAO fsFileDAOImpl()
 	{
 		return new FSFileDAOImpl(queryFactory);
 	}
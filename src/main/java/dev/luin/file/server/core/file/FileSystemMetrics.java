@@ -0,0 +1,56 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.file;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.FieldDefaults;
+
+@FieldDefaults(level=AccessLevel.PRIVATE, makeFinal=true)
+@Getter
+class FileSystemMetrics
+{
+	@Getter(AccessLevel.NONE)
+	MeterRegistry meterRegistry;
+	Timer createTimer;
+	Timer appendTimer;
+	Timer writeTimer;
+	Timer checksumTimer;
+	Counter createdBytes;
+	Counter appendedBytes;
+	Counter writtenBytes;
+
+	public FileSystemMetrics(@NonNull final MeterRegistry meterRegistry)
+	{
+		this.meterRegistry = meterRegistry;
+		createTimer = meterRegistry.timer("fs.file.operation","operation","create");
+		appendTimer = meterRegistry.timer("fs.file.operation","operation","append");
+		writeTimer = meterRegistry.timer("fs.file.operation","operation","write");
+		checksumTimer = meterRegistry.timer("fs.file.operation","operation","checksum");
+		createdBytes = meterRegistry.counter("fs.file.bytes","operation","create");
+		appendedBytes = meterRegistry.counter("fs.file.bytes","operation","append");
+		writtenBytes = meterRegistry.counter("fs.file.bytes","operation","write");
+	}
+
+	public Timer.Sample start()
+	{
+		return Timer.start(meterRegistry);
+	}
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.file;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+
+@FieldDefaults(level=AccessLevel.PRIVATE, makeFinal=true)
+class LimitedOutputStream extends FilterOutputStream
+{
+	@NonNull
+	String virtualPath;
+	@NonFinal
+	long remaining;
+
+	public LimitedOutputStream(@NonNull final OutputStream output, @NonNull final String virtualPath, final long limit)
+	{
+		super(output);
+		this.virtualPath = virtualPath;
+		this.remaining = limit;
+	}
+
+	@Override
+	public void write(final int b) throws IOException
+	{
+		write(new byte[]{(byte)b},0,1);
+	}
+
+	@Override
+	public void write(final byte[] b, final int off, final int len) throws IOException
+	{
+		// nothing is written, so the data beyond the length of the file does not end up in the file
+		if (len > remaining)
+			throw new UploadLengthExceededException("Chunk exceeds the length of file " + virtualPath);
+		out.write(b,off,len);
+		remaining -= len;
+	}
+}
@@ -65,6 +65,12 @@ public class QFile extends com.querydsl.sql.RelationalPathBase<QFile> {
 
     public final EnumPath<FileType> type = createEnum("type", FileType.class);
 
+    public final DateTimePath<java.time.Instant> uploadExpires = createDateTime("uploadExpires", java.time.Instant.class);
+
+    public final NumberPath<Long> uploadOffset = createNumber("uploadOffset", Long.class);
+
+    public final DateTimePath<java.time.Instant> uploadLocked = createDateTime("uploadLocked", java.time.Instant.class);
+
     public final StringPath virtualPath = createString("virtualPath");
 
     public final com.querydsl.sql.PrimaryKey<QFile> sysPk10102 = createPrimaryKey(virtualPath);
@@ -108,6 +114,9 @@ public class QFile extends com.querydsl.sql.RelationalPathBase<QFile> {
         addMetadata(startDate, ColumnMetadata.named("start_date").withIndex(8).ofType(Types.TIMESTAMP).withSize(26));
         addMetadata(timestamp, ColumnMetadata.named("time_stamp").withIndex(7).ofType(Types.TIMESTAMP).withSize(26).notNull());
         addMetadata(type, ColumnMetadata.named("type").withIndex(12).ofType(Types.TINYINT).withSize(3));
+        addMetadata(uploadExpires, ColumnMetadata.named("upload_expires").withIndex(13).ofType(Types.TIMESTAMP).withSize(26));
+        addMetadata(uploadLocked, ColumnMetadata.named("upload_locked").withIndex(15).ofType(Types.TIMESTAMP).withSize(26));
+        addMetadata(uploadOffset, ColumnMetadata.named("upload_offset").withIndex(14).ofType(Types.BIGINT).withSize(32));
         addMetadata(virtualPath, ColumnMetadata.named("virtual_path").withIndex(1).ofType(Types.VARCHAR).withSize(256).notNull());
     }
 
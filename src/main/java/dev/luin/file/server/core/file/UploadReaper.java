@@ -0,0 +1,50 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.file;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@FieldDefaults(level=AccessLevel.PRIVATE, makeFinal=true)
+@AllArgsConstructor
+public class UploadReaper
+{
+	@NonNull
+	FileSystem fs;
+	int batchSize;
+
+	@Scheduled(initialDelayString = "${file.upload.reaper.interval}", fixedDelayString = "${file.upload.reaper.interval}")
+	public void deleteExpiredFiles()
+	{
+		try
+		{
+			val result = fs.deleteExpiredFiles(batchSize);
+			if (result > 0)
+				log.info("Deleted {} expired uploads",result);
+		}
+		catch (RuntimeException e)
+		{
+			log.error("Error deleting expired uploads",e);
+		}
+	}
+}
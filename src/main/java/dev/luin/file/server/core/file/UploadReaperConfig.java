@@ -0,0 +1,42 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.file;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+@Configuration
+@EnableScheduling
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class UploadReaperConfig
+{
+	@Value("${file.upload.reaper.batchSize}")
+	int batchSize;
+	@Autowired
+	FileSystem fileSystem;
+
+	@Bean
+	public UploadReaper uploadReaper()
+	{
+		return new UploadReaper(fileSystem,batchSize);
+	}
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.file;
+
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.Semaphore;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+
+@FieldDefaults(level=AccessLevel.PRIVATE)
+@Getter
+@Setter
+class UploadSession
+{
+	// not owned by a thread, an async upload is finished on a different thread than it is started on
+	final Semaphore lock = new Semaphore(1);
+	Digests digests;
+	long offset;
+	// only used for parallel uploads: the received data and first -> end (exclusive) of the chunks being written
+	Extents extents;
+	final NavigableMap<Long,Long> writers = new TreeMap<>();
+
+	public UploadSession(final long offset)
+	{
+		this.offset = offset;
+	}
+
+	public boolean isCompleted(final Long length)
+	{
+		return length != null && length == offset;
+	}
+
+	public Extents getExtents()
+	{
+		if (extents == null)
+			extents = Extents.of(offset);
+		return extents;
+	}
+
+	public boolean isWriting(final long first, final long end)
+	{
+		val writer = writers.lowerEntry(end);
+		return writer != null && writer.getValue() > first;
+	}
+
+	public boolean isBusy()
+	{
+		return lock.availablePermits() == 0 || !writers.isEmpty();
+	}
+}
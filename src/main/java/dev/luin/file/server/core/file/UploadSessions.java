@@ -0,0 +1,141 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.file;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+
+@FieldDefaults(level=AccessLevel.PRIVATE, makeFinal=true)
+class UploadSessions
+{
+	@NonNull
+	FileSystemMetrics metrics;
+	// idle sessions (e.g. of abandoned uploads) expire, they are rebuilt from the file when the upload is resumed
+	@NonNull
+	Cache<String,UploadSession> sessions;
+
+	public UploadSessions(@NonNull final FileSystemMetrics metrics, @NonNull final Duration expireAfterAccess)
+	{
+		this.metrics = metrics;
+		this.sessions = Caffeine.newBuilder()
+				.expireAfter(new IdleExpiry(expireAfterAccess.toNanos()))
+				.build();
+	}
+
+	public UploadSession get(@NonNull final FSFile fsFile)
+	{
+		// no state for this upload (restart, expired or failed append), so take the offset from disk (or the database)
+		return sessions.get(fsFile.getVirtualPath(),p -> new UploadSession(fsFile.getOffset()));
+	}
+
+	public UploadSession tryLock(@NonNull final FSFile fsFile) throws UploadConflictException
+	{
+		while (true)
+		{
+			val result = get(fsFile);
+			if (!result.getLock().tryAcquire())
+				throw new UploadConflictException("File " + fsFile.getVirtualPath() + " is being uploaded");
+			// the session may have been removed (completed, failed or expired) in the meantime
+			if (isCurrent(fsFile,result))
+				return result;
+			result.getLock().release();
+		}
+	}
+
+	public UploadSession lock(@NonNull final FSFile fsFile)
+	{
+		while (true)
+		{
+			val result = get(fsFile);
+			result.getLock().acquireUninterruptibly();
+			if (isCurrent(fsFile,result))
+				return result;
+			result.getLock().release();
+		}
+	}
+
+	public void unlock(@NonNull final FSFile fsFile, @NonNull final UploadSession session)
+	{
+		session.getLock().release();
+		// reading the session again restarts its expiry now that it may be idle
+		sessions.getIfPresent(fsFile.getVirtualPath());
+	}
+
+	private boolean isCurrent(final FSFile fsFile, final UploadSession session)
+	{
+		// reading the locked session keeps it from expiring until it is unlocked
+		return sessions.getIfPresent(fsFile.getVirtualPath()) == session;
+	}
+
+	public Digests getDigests(@NonNull final FSFile fsFile, @NonNull final UploadSession session) throws IOException
+	{
+		if (session.getDigests() == null)
+		{
+			val sample = metrics.start();
+			session.setDigests(Digests.of(fsFile.getFile(),session.getOffset()));
+			sample.stop(metrics.getChecksumTimer());
+		}
+		return session.getDigests();
+	}
+
+	public void remove(@NonNull final String virtualPath)
+	{
+		sessions.invalidate(virtualPath);
+	}
+
+	@FieldDefaults(level=AccessLevel.PRIVATE, makeFinal=true)
+	private static class IdleExpiry implements Expiry<String,UploadSession>
+	{
+		long expireAfterAccess;
+
+		public IdleExpiry(final long expireAfterAccess)
+		{
+			this.expireAfterAccess = expireAfterAccess;
+		}
+
+		private long expireAfter(final UploadSession session)
+		{
+			return session.isBusy() ? Long.MAX_VALUE : expireAfterAccess;
+		}
+
+		@Override
+		public long expireAfterCreate(final String key, final UploadSession session, final long currentTime)
+		{
+			return expireAfter(session);
+		}
+
+		@Override
+		public long expireAfterUpdate(final String key, final UploadSession session, final long currentTime, final long currentDuration)
+		{
+			return expireAfter(session);
+		}
+
+		@Override
+		public long expireAfterRead(final String key, final UploadSession session, final long currentTime, final long currentDuration)
+		{
+			return expireAfter(session);
+		}
+	}
+}
@@ -29,6 +29,7 @@ import lombok.experimental.FieldDefaults;
 public class HttpException extends HTTPException
 {
 	private static final long serialVersionUID = 1L;
+	public static final int SC_CHECKSUM_MISMATCH = 460;
 	String message;
 	Map<String,String> headers;
 
@@ -69,6 +70,11 @@ public class HttpException extends HTTPException
 		return new HttpException(HttpServletResponse.SC_UNAUTHORIZED);
 	}
 
+	public static HttpException forbiddenException()
+	{
+		return new HttpException(HttpServletResponse.SC_FORBIDDEN);
+	}
+
 	public static HttpException notFound(String resource)
 	{
 		return new HttpException(HttpServletResponse.SC_NOT_FOUND,resource + " not found");
@@ -99,6 +105,11 @@ public class HttpException extends HTTPException
 		return new HttpException(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE);
 	}
 
+	public static HttpException checksumMismatchException()
+	{
+		return new HttpException(SC_CHECKSUM_MISMATCH,"Checksum mismatch");
+	}
+
 	public static HttpException requestedRangeNotSatisfiable(Map<String,String> headers)
 	{
 		return new HttpException(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE,headers);
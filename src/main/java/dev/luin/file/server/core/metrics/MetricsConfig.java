@@ -0,0 +1,44 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.metrics;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import lombok.val;
+
+@Configuration
+public class MetricsConfig
+{
+	@Bean
+	@Primary
+	public CompositeMeterRegistry meterRegistry()
+	{
+		val result = new CompositeMeterRegistry();
+		result.add(prometheusMeterRegistry());
+		return result;
+	}
+
+	@Bean
+	public PrometheusMeterRegistry prometheusMeterRegistry()
+	{
+		return new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+	}
+}
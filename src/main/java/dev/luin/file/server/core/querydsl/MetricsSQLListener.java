@@ -0,0 +1,75 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.querydsl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.querydsl.sql.SQLBaseListener;
+import com.querydsl.sql.SQLListenerContext;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@AllArgsConstructor
+class MetricsSQLListener extends SQLBaseListener
+{
+	private static final String START_TIME = MetricsSQLListener.class.getName() + ".startTime";
+	@NonNull
+	MeterRegistry meterRegistry;
+
+	@Override
+	public void preExecute(final SQLListenerContext context)
+	{
+		context.setData(START_TIME,System.nanoTime());
+	}
+
+	@Override
+	public void executed(final SQLListenerContext context)
+	{
+		record(context,"success");
+	}
+
+	@Override
+	public void exception(final SQLListenerContext context)
+	{
+		record(context,"error");
+	}
+
+	private void record(final SQLListenerContext context, final String outcome)
+	{
+		val startTime = (Long)context.getData(START_TIME);
+		if (startTime != null)
+			meterRegistry.timer("fs.db.query","table",getTable(context),"statement",getStatement(context),"outcome",outcome)
+					.record(System.nanoTime() - startTime,TimeUnit.NANOSECONDS);
+	}
+
+	private String getTable(final SQLListenerContext context)
+	{
+		return context.getEntity() != null ? context.getEntity().getTableName() : "none";
+	}
+
+	private String getStatement(final SQLListenerContext context)
+	{
+		return StringUtils.lowerCase(StringUtils.substringBefore(StringUtils.trimToEmpty(context.getSQL())," "));
+	}
+}
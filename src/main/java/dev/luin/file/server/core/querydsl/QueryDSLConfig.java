@@ -43,6 +43,7 @@ import com.querydsl.sql.types.EnumByOrdinalType;
 import com.zaxxer.hikari.HikariDataSource;
 
 import dev.luin.file.server.core.file.FileType;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.AccessLevel;
 import lombok.val;
 import lombok.experimental.FieldDefaults;
@@ -53,6 +54,8 @@ public class QueryDSLConfig
 {
 	@Autowired
 	DataSource dataSource;
+	@Autowired
+	MeterRegistry meterRegistry;
 	
 	@Bean
 	public SQLQueryFactory queryFactory()
@@ -70,6 +73,7 @@ public class QueryDSLConfig
 		result.register("user","certificate",new ByteArrayType(Types.BLOB));
 		result.register("file","file_type",new EnumByOrdinalType<FileType>(Types.SMALLINT,FileType.class));
 		result.setExceptionTranslator(new SpringExceptionTranslator());
+		result.addListener(new MetricsSQLListener(meterRegistry));
 		return result;
 	}
 
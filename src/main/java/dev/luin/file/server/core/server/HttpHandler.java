@@ -18,12 +18,17 @@ package dev.luin.file.server.core.server;
 import java.io.IOException;
 import java.security.cert.CertificateEncodingException;
 
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import dev.luin.file.server.core.http.HttpException;
 import dev.luin.file.server.core.service.model.User;
 import dev.luin.file.server.core.user.UserManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.vavr.control.Try;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.NonNull;
@@ -36,6 +41,8 @@ public abstract class HttpHandler
 {
 	@NonNull
 	UserManager userManager;
+	@NonNull
+	MeterRegistry meterRegistry;
 
 	public abstract void handle(@NonNull final HttpServletRequest request, @NonNull final HttpServletResponse response) throws IOException;
 
@@ -45,6 +52,49 @@ public abstract class HttpHandler
 		return userManager.findUser(clientCertificate).getOrElseThrow(() -> HttpException.unauthorizedException());
 	}
 
+	protected Timer.Sample startTimer()
+	{
+		return Timer.start(meterRegistry);
+	}
+
+	protected void record(final String server, final Timer.Sample sample, final Try<BaseHandler> handler, final HttpServletRequest request, final HttpServletResponse response)
+	{
+		if (request.isAsyncStarted())
+			request.getAsyncContext().addListener(new AsyncListener()
+			{
+				@Override
+				public void onComplete(AsyncEvent event)
+				{
+					recordNow(server,sample,handler,request,response);
+				}
+
+				@Override
+				public void onTimeout(AsyncEvent event)
+				{
+				}
+
+				@Override
+				public void onError(AsyncEvent event)
+				{
+				}
+
+				@Override
+				public void onStartAsync(AsyncEvent event)
+				{
+				}
+			});
+		else
+			recordNow(server,sample,handler,request,response);
+	}
+
+	private void recordNow(final String server, final Timer.Sample sample, final Try<BaseHandler> handler, final HttpServletRequest request, final HttpServletResponse response)
+	{
+		val handlerName = handler.map(h -> h.getClass().getSimpleName()).getOrElse("none");
+		sample.stop(meterRegistry.timer("fs.http.requests","server",server,"handler",handlerName,"status",Integer.toString(response.getStatus())));
+		if (request.getContentLengthLong() > 0)
+			meterRegistry.counter("fs.http.bytes.in","server",server,"handler",handlerName).increment(request.getContentLengthLong());
+	}
+
 	protected void sendError(final HttpServletResponse response, HttpException e) throws IOException
 	{
 		response.setStatus(e.getStatusCode());
@@ -0,0 +1,189 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.server.download;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+
+import org.apache.commons.codec.binary.Base64OutputStream;
+import org.apache.commons.io.IOUtils;
+
+import dev.luin.file.server.core.file.FSFile;
+import dev.luin.file.server.core.file.FileSystem;
+import io.vavr.collection.Seq;
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@FieldDefaults(level=AccessLevel.PRIVATE, makeFinal=true)
+class AsyncResponseWriter implements WriteListener, AsyncListener
+{
+	private static final int BUFFER_SIZE = 64 * 1024;
+	@NonNull
+	FileSystem fs;
+	@NonNull
+	FSFile fsFile;
+	@NonNull
+	AsyncContext asyncContext;
+	@NonNull
+	ServletOutputStream output;
+	@NonNull
+	Iterator<BodyPart> parts;
+	ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+	ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+	@NonFinal
+	FileChannel channel;
+	@NonFinal
+	BodyPart part;
+	@NonFinal
+	long position;
+	@NonFinal
+	Base64OutputStream encoder;
+
+	public AsyncResponseWriter(@NonNull final FileSystem fs, @NonNull final FSFile fsFile, @NonNull final AsyncContext asyncContext, @NonNull final ServletOutputStream output, @NonNull final Seq<BodyPart> body)
+	{
+		this.fs = fs;
+		this.fsFile = fsFile;
+		this.asyncContext = asyncContext;
+		this.output = output;
+		this.parts = body.iterator();
+	}
+
+	@Override
+	public void onWritePossible() throws IOException
+	{
+		while (output.isReady())
+		{
+			if (part == null)
+			{
+				if (!parts.hasNext())
+				{
+					close();
+					asyncContext.complete();
+					return;
+				}
+				nextPart();
+			}
+			if (part.isText())
+			{
+				output.write(part.getData());
+				part = null;
+			}
+			else if (position < part.getLength())
+				writeChunk();
+			else
+			{
+				if (encoder != null)
+				{
+					encoder.close();
+					encoder = null;
+					writeEncoded();
+				}
+				part = null;
+			}
+		}
+	}
+
+	@Override
+	public void onError(final Throwable t)
+	{
+		log.error("",t);
+		close();
+		asyncContext.complete();
+	}
+
+	@Override
+	public void onTimeout(final AsyncEvent event)
+	{
+		log.warn("Timeout writing the response of {}",fsFile.getVirtualPath());
+		close();
+		asyncContext.complete();
+	}
+
+	@Override
+	public void onError(final AsyncEvent event)
+	{
+		log.error("",event.getThrowable());
+		close();
+		asyncContext.complete();
+	}
+
+	@Override
+	public void onComplete(final AsyncEvent event)
+	{
+		// releases the file when the response is completed before it is written completely (a no-op otherwise)
+		close();
+	}
+
+	@Override
+	public void onStartAsync(final AsyncEvent event)
+	{
+	}
+
+	private void nextPart() throws IOException
+	{
+		part = parts.next();
+		position = 0;
+		if (!part.isText() && channel == null)
+			channel = fs.openChannel(fsFile);
+		if (part.isBase64())
+			encoder = new Base64OutputStream(encoded);
+	}
+
+	private void writeChunk() throws IOException
+	{
+		buffer.clear();
+		buffer.limit((int)Math.min(BUFFER_SIZE,part.getLength() - position));
+		val count = channel.read(buffer,part.getFirst() + position);
+		if (count < 0)
+			throw new EOFException(fsFile.getVirtualPath());
+		position += count;
+		if (encoder != null)
+		{
+			encoder.write(buffer.array(),0,count);
+			writeEncoded();
+		}
+		else
+			output.write(buffer.array(),0,count);
+	}
+
+	private void writeEncoded() throws IOException
+	{
+		// one write per isReady() check, so the encoder does not write to the output directly
+		output.write(encoded.toByteArray());
+		encoded.reset();
+	}
+
+	private void close()
+	{
+		IOUtils.closeQuietly(channel,e -> log.error("",e));
+		channel = null;
+	}
+}
@@ -16,8 +16,8 @@
 package dev.luin.file.server.core.server.download;
 
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.commons.codec.binary.Base64OutputStream;
@@ -25,17 +25,32 @@ import org.apache.commons.codec.binary.Base64OutputStream;
 import dev.luin.file.server.core.file.FSFile;
 import dev.luin.file.server.core.file.FileSystem;
 import dev.luin.file.server.core.server.download.range.ContentRange;
-import dev.luin.file.server.core.server.download.range.ContentRangeHeader;
-import dev.luin.file.server.core.server.download.range.ContentRangeUtils;
-import io.vavr.collection.Seq;
 import lombok.NonNull;
 import lombok.val;
 
 class Base64ResponseWriter extends ResponseWriter
 {
-	public Base64ResponseWriter(@NonNull final FileSystem fileSystem, @NonNull final HttpServletResponse response)
+	public Base64ResponseWriter(@NonNull final FileSystem fileSystem, @NonNull final HttpServletRequest request, @NonNull final HttpServletResponse response)
 	{
-		super(fileSystem,response);
+		super(fileSystem,request,response);
+	}
+
+	@Override
+	protected boolean isSendfileSupported()
+	{
+		return false;
+	}
+
+	@Override
+	protected String getContentTransferEncoding()
+	{
+		return "base64";
+	}
+
+	@Override
+	protected boolean isBase64(final FSFile fsFile)
+	{
+		return isBinaryContent(fsFile);
 	}
 
 	@Override
@@ -56,10 +71,7 @@ class Base64ResponseWriter extends ResponseWriter
 	{
 		val fileLength = fsFile.getFileLength();
 		val isBinary = isBinaryContent(fsFile);
-		response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
-		response.setHeader("Content-Type",fsFile.getContentType());
-		response.setHeader("Content-Length",Long.toString(range.getLength(fileLength)));
-		response.setHeader(ContentRangeHeader.CONTENT_RANGE.getName(),ContentRangeUtils.createContentRangeHeader(range,fileLength));
+		setStatus206Headers(fsFile,range);
 		if (isBinary)
 			response.setHeader("Content-Transfer-Encoding","base64");
 		try (val output = isBinary ? new Base64OutputStream(response.getOutputStream()) : response.getOutputStream())
@@ -67,42 +79,4 @@ class Base64ResponseWriter extends ResponseWriter
 			fileSystem.write(fsFile,output,range.getFirst(fileLength),range.getLength(fileLength));
 		}
 	}
-
-	@Override
-	protected void writeResponse(@NonNull final HttpServletResponse response, @NonNull final FSFile fsFile, @NonNull final Seq<ContentRange> ranges) throws IOException
-	{
-		val fileLength = fsFile.getFileLength();
-		val boundary = createMimeBoundary();
-		val isBinary = isBinaryContent(fsFile);
-		response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
-		response.setHeader("Content-Type","multipart/byteranges; boundary=" + boundary);
-		//response.setHeader("Content-Length","");
-		try (val writer = new OutputStreamWriter(response.getOutputStream(),"UTF-8"))
-		{
-			for (val range: ranges)
-			{
-				writer.write("--");
-				writer.write(boundary);
-				writer.write("\r\n");
-				writer.write("Content-Type: " + fsFile.getContentType());
-				writer.write("\r\n");
-				writer.write(ContentRangeHeader.CONTENT_RANGE.getName() + ": " + ContentRangeUtils.createContentRangeHeader(range,fileLength));
-				writer.write("\r\n");
-				if (isBinary)
-				{
-					writer.write("Content-Transfer-Encoding: base64");
-					writer.write("\r\n");
-				}
-				writer.write("\r\n");
-				try (val output = isBinary ? new Base64OutputStream(response.getOutputStream()) : response.getOutputStream())
-				{
-					fileSystem.write(fsFile,output,range.getFirst(fileLength),range.getLength(fileLength));
-				}
-				writer.write("\r\n");
-			}
-			writer.write("--");
-			writer.write(boundary);
-			writer.write("--");
-		}
-	}
 }
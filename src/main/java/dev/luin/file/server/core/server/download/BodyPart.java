@@ -0,0 +1,65 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.server.download;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.codec.binary.BaseNCodec;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+
+@FieldDefaults(level=AccessLevel.PRIVATE, makeFinal=true)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+class BodyPart
+{
+	byte[] data;
+	long first;
+	long length;
+	boolean base64;
+
+	public static BodyPart of(@NonNull final String text)
+	{
+		return new BodyPart(text.getBytes(StandardCharsets.UTF_8),0,0,false);
+	}
+
+	public static BodyPart of(final long first, final long length, final boolean base64)
+	{
+		return new BodyPart(null,first,length,base64);
+	}
+
+	public static long getBase64Length(final long length)
+	{
+		// Base64OutputStream writes MIME lines of 76 chars, each (including the last) ended by CRLF
+		val encoded = (length + 2) / 3 * 4;
+		return encoded + (encoded + BaseNCodec.MIME_CHUNK_SIZE - 1) / BaseNCodec.MIME_CHUNK_SIZE * 2;
+	}
+
+	public boolean isText()
+	{
+		return data != null;
+	}
+
+	public long getContentLength()
+	{
+		return isText() ? data.length : base64 ? getBase64Length(length) : length;
+	}
+}
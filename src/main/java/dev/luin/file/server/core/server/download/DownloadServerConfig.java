@@ -16,11 +16,14 @@
 package dev.luin.file.server.core.server.download;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import dev.luin.file.server.core.file.FileSystem;
+import dev.luin.file.server.core.server.download.range.ContentRangeLimits;
 import dev.luin.file.server.core.user.UserManager;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 
@@ -32,14 +35,31 @@ public class DownloadServerConfig
 	UserManager userManager;
 	@Autowired
 	FileSystem fs;
+	@Autowired
+	MeterRegistry meterRegistry;
+	@Value("${server.download.offload}")
+	DownloadOffload offload;
+	@Value("${server.download.offloadPath}")
+	String offloadPath;
+	@Value("${server.download.async}")
+	boolean async;
+	@Value("${server.download.asyncTimeout}")
+	long asyncTimeout;
+	@Value("${server.download.range.maxGap}")
+	long maxRangeGap;
+	@Value("${server.download.range.maxRanges}")
+	int maxRanges;
+	@Value("${server.download.range.maxLengthFactor}")
+	double maxRangeLengthFactor;
 
 	@Bean("DownloadHttpHandler")
 	public HttpHandler httpHandler()
 	{
 		return HttpHandler.builder()
 				.userManager(userManager)
+				.meterRegistry(meterRegistry)
 				.headHandler(new HeadHandler(fs))
-				.getHandler(new GetHandler(fs))
+				.getHandler(new GetHandler(fs,offload,offloadPath,async,asyncTimeout,new ContentRangeLimits(maxRangeGap,maxRanges,maxRangeLengthFactor)))
 				.build();
 	}
 }
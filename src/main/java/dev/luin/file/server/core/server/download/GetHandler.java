@@ -28,21 +28,39 @@ import dev.luin.file.server.core.http.HttpException;
 import dev.luin.file.server.core.server.BaseHandler;
 import dev.luin.file.server.core.server.download.range.ContentRange;
 import dev.luin.file.server.core.server.download.range.ContentRangeHeader;
+import dev.luin.file.server.core.server.download.range.ContentRangeLimits;
 import dev.luin.file.server.core.server.download.range.ContentRangeUtils;
 import dev.luin.file.server.core.service.model.User;
 import io.vavr.collection.HashMap;
 import io.vavr.collection.List;
 import io.vavr.collection.Seq;
+import lombok.AccessLevel;
+import lombok.NonNull;
 import lombok.val;
 import lombok.var;
+import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 class GetHandler extends BaseHandler
 {
-	public GetHandler(FileSystem fs)
+	@NonNull
+	DownloadOffload offload;
+	String offloadPath;
+	boolean async;
+	long asyncTimeout;
+	@NonNull
+	ContentRangeLimits rangeLimits;
+
+	public GetHandler(FileSystem fs, @NonNull DownloadOffload offload, String offloadPath, boolean async, long asyncTimeout, @NonNull ContentRangeLimits rangeLimits)
 	{
 		super(fs);
+		this.offload = offload;
+		this.offloadPath = offloadPath;
+		this.async = async;
+		this.asyncTimeout = asyncTimeout;
+		this.rangeLimits = rangeLimits;
 	}
 
 	@Override
@@ -64,7 +82,10 @@ class GetHandler extends BaseHandler
 				break;
 			default:
 				log.info("Download {}",fsFile);
-				handle(request,response,fsFile);
+				if (offload == DownloadOffload.NONE)
+					handle(request,response,fsFile);
+				else
+					offload(request,response,fsFile);
 		}
 	}
 
@@ -81,7 +102,21 @@ class GetHandler extends BaseHandler
 		if (!fsFile.isCompleted())
 			throw new FileNotFoundException(fsFile.getVirtualPath());
 		val ranges = getRanges(request,fsFile);
-		sendResponse(response,fsFile,ranges);
+		sendResponse(request,response,fsFile,ranges);
+	}
+
+	private void offload(final HttpServletRequest request, final HttpServletResponse response, final FSFile fsFile) throws IOException
+	{
+		if (!fsFile.isCompleted())
+			throw new FileNotFoundException(fsFile.getVirtualPath());
+		new ResponseWriter(getFs(),request,response).offload(fsFile,offload.getHeaderName(),getOffloadLocation(fsFile));
+	}
+
+	private String getOffloadLocation(final FSFile fsFile) throws IOException
+	{
+		return offload == DownloadOffload.X_ACCEL_REDIRECT
+				? offloadPath + "/" + getFs().getRelativePath(fsFile)
+				: getFs().getCanonicalPath(fsFile);
 	}
 
 	private Seq<ContentRange> getRanges(final HttpServletRequest request, final FSFile fsFile) throws FileNotFoundException
@@ -95,6 +130,7 @@ class GetHandler extends BaseHandler
 				ranges = ContentRangeUtils.filterValidRanges(fsFile.getFileLength(),ranges);
 				if (ranges.size() == 0)
 					throw HttpException.requestedRangeNotSatisfiable(HashMap.of(ContentRangeHeader.CONTENT_RANGE.getName(),ContentRangeUtils.createContentRangeHeader(fsFile.getLength())));
+				ranges = ContentRangeUtils.normalizeRanges(fsFile.getFileLength(),ranges,rangeLimits);
 			}
 			else
 				ranges = List.empty();
@@ -102,8 +138,12 @@ class GetHandler extends BaseHandler
 		return ranges;
 	}
 
-	private void sendResponse(final HttpServletResponse response, final FSFile fsFile, final Seq<ContentRange> ranges) throws IOException
+	private void sendResponse(final HttpServletRequest request, final HttpServletResponse response, final FSFile fsFile, final Seq<ContentRange> ranges) throws IOException
 	{
-		new ResponseWriter(getFs(),response).write(fsFile,ranges);
+		val responseWriter = new ResponseWriter(getFs(),request,response);
+		if (async && request.isAsyncSupported())
+			responseWriter.writeAsync(fsFile,ranges,asyncTimeout);
+		else
+			responseWriter.write(fsFile,ranges);
 	}
 }
@@ -41,7 +41,7 @@ class HeadHandler extends BaseHandler
 	{
 		log.debug("HandleHead {}",user);
 		val fsFile = handleRequest(request,user);
-		sendResponse(response,fsFile);
+		sendResponse(request,response,fsFile);
 	}
 
 	private FSFile handleRequest(final HttpServletRequest request, User user)
@@ -52,8 +52,8 @@ class HeadHandler extends BaseHandler
 		return fsFile;
 	}
 
-	private void sendResponse(final HttpServletResponse response, final FSFile fsFile)
+	private void sendResponse(final HttpServletRequest request, final HttpServletResponse response, final FSFile fsFile)
 	{
-		new ResponseWriter(getFs(),response).setStatus200Headers(fsFile);
+		new ResponseWriter(getFs(),request,response).setStatus200Headers(fsFile);
 	}
 }
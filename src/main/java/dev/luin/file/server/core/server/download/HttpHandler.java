@@ -28,6 +28,8 @@ import javax.servlet.http.HttpServletResponse;
 import dev.luin.file.server.core.http.HttpException;
 import dev.luin.file.server.core.server.BaseHandler;
 import dev.luin.file.server.core.user.UserManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.vavr.control.Try;
 import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.NonNull;
@@ -45,21 +47,22 @@ public class HttpHandler extends dev.luin.file.server.core.server.HttpHandler
 	GetHandler getHandler;
 
 	@Builder
-	public HttpHandler(@NonNull UserManager userManager, @NonNull HeadHandler headHandler, @NonNull GetHandler getHandler)
+	public HttpHandler(@NonNull UserManager userManager, @NonNull MeterRegistry meterRegistry, @NonNull HeadHandler headHandler, @NonNull GetHandler getHandler)
 	{
-		super(userManager);
+		super(userManager,meterRegistry);
 		this.headHandler = headHandler;
 		this.getHandler = getHandler;
 	}
 
 	public void handle(@NonNull final HttpServletRequest request, @NonNull final HttpServletResponse response) throws IOException
 	{
+		val sample = startTimer();
+		val handler = Try.of(() -> getHandler(request));
 		try
 		{
 			val user = authenticate(request);
 			log.info("User {}",user);
-			val handler = getHandler(request);
-			handler.handle(request,response,user);
+			handler.get().handle(request,response,user);
 		}
 		catch (HttpException e)
 		{
@@ -76,6 +79,10 @@ public class HttpHandler extends dev.luin.file.server.core.server.HttpHandler
 			log.error("",e);
 			response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
 		}
+		finally
+		{
+			record("download",sample,handler,request,response);
+		}
 	}
 
 	private BaseHandler getHandler(final HttpServletRequest request)
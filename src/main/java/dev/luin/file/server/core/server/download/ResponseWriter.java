@@ -16,16 +16,22 @@
 package dev.luin.file.server.core.server.download;
 
 import java.io.IOException;
-import java.io.OutputStreamWriter;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 import java.util.UUID;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.apache.commons.codec.binary.Base64OutputStream;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+
 import dev.luin.file.server.core.file.FSFile;
 import dev.luin.file.server.core.file.FileSystem;
 import dev.luin.file.server.core.server.download.range.ContentRange;
 import dev.luin.file.server.core.server.download.range.ContentRangeHeader;
 import dev.luin.file.server.core.server.download.range.ContentRangeUtils;
+import io.vavr.collection.List;
 import io.vavr.collection.Seq;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
@@ -37,9 +43,15 @@ import lombok.experimental.FieldDefaults;
 @AllArgsConstructor
 class ResponseWriter
 {
+	private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+	private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+	private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+	private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
 	@NonNull
 	FileSystem fileSystem;
 	@NonNull
+	HttpServletRequest request;
+	@NonNull
 	HttpServletResponse response;
 
 	public void write(@NonNull final FSFile fsFile, @NonNull final Seq<ContentRange> ranges) throws IOException
@@ -57,59 +69,156 @@ class ResponseWriter
 		}
 	}
 
+	public void writeAsync(@NonNull final FSFile fsFile, @NonNull final Seq<ContentRange> ranges, final long timeout) throws IOException
+	{
+		if (ranges.size() < 2 && isSendfileSupported())
+			write(fsFile,ranges);
+		else
+		{
+			val body = ranges.size() == 0 ? createBody(fsFile) : ranges.size() == 1 ? createBody(fsFile,ranges.get(0)) : createBody(fsFile,ranges);
+			val asyncContext = request.startAsync();
+			asyncContext.setTimeout(timeout);
+			val output = response.getOutputStream();
+			val writer = new AsyncResponseWriter(fileSystem,fsFile,asyncContext,output,body);
+			asyncContext.addListener(writer);
+			output.setWriteListener(writer);
+		}
+	}
+
+	protected Seq<BodyPart> createBody(@NonNull final FSFile fsFile)
+	{
+		setStatus200Headers(fsFile);
+		setContentTransferEncodingHeader(fsFile);
+		return List.of(BodyPart.of(0,fsFile.getFileLength(),isBase64(fsFile)));
+	}
+
+	protected Seq<BodyPart> createBody(@NonNull final FSFile fsFile, @NonNull final ContentRange range)
+	{
+		val fileLength = fsFile.getFileLength();
+		setStatus206Headers(fsFile,range);
+		setContentTransferEncodingHeader(fsFile);
+		return List.of(BodyPart.of(range.getFirst(fileLength),range.getLength(fileLength),isBase64(fsFile)));
+	}
+
+	protected Seq<BodyPart> createBody(@NonNull final FSFile fsFile, @NonNull final Seq<ContentRange> ranges)
+	{
+		val fileLength = fsFile.getFileLength();
+		val boundary = createMimeBoundary();
+		val result = ranges.flatMap(r -> List.of(
+						BodyPart.of(createPartHeader(fsFile,r,boundary)),
+						BodyPart.of(r.getFirst(fileLength),r.getLength(fileLength),isBase64(fsFile)),
+						BodyPart.of("\r\n")))
+				.append(BodyPart.of("--" + boundary + "--"));
+		setMultipartHeaders(boundary,result.map(BodyPart::getContentLength).sum().longValue());
+		return result;
+	}
+
 	protected void writeResponse(@NonNull final HttpServletResponse response, @NonNull final FSFile fsFile) throws IOException
 	{
 		setStatus200Headers(fsFile);
-		if (isBinaryContent(fsFile))
-			response.setHeader("Content-Transfer-Encoding","binary");
-		fileSystem.write(fsFile,response.getOutputStream());
+		setContentTransferEncodingHeader(fsFile);
+		if (isSendfileSupported())
+			sendfile(fsFile,0,fsFile.getFileLength());
+		else
+			write(fsFile,response.getOutputStream(),0,fsFile.getFileLength());
 	}
 
 	protected void writeResponse(@NonNull final HttpServletResponse response, @NonNull final FSFile fsFile, @NonNull final ContentRange range) throws IOException
+	{
+		val fileLength = fsFile.getFileLength();
+		setStatus206Headers(fsFile,range);
+		setContentTransferEncodingHeader(fsFile);
+		if (isSendfileSupported())
+			sendfile(fsFile,range.getFirst(fileLength),range.getLength(fileLength));
+		else
+			write(fsFile,response.getOutputStream(),range.getFirst(fileLength),range.getLength(fileLength));
+	}
+
+	protected void writeResponse(@NonNull final HttpServletResponse response, @NonNull final FSFile fsFile, @NonNull final Seq<ContentRange> ranges) throws IOException
+	{
+		val body = createBody(fsFile,ranges);
+		try (val input = fileSystem.openChannel(fsFile); val output = response.getOutputStream())
+		{
+			for (val part: body)
+				if (part.isText())
+					output.write(part.getData());
+				else
+					write(input,output,part);
+		}
+	}
+
+	protected boolean isSendfileSupported()
+	{
+		return Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT));
+	}
+
+	protected void sendfile(@NonNull final FSFile fsFile, final long first, final long length) throws IOException
+	{
+		request.setAttribute(SENDFILE_FILENAME,fileSystem.getCanonicalPath(fsFile));
+		request.setAttribute(SENDFILE_START,first);
+		request.setAttribute(SENDFILE_END,first + length);
+	}
+
+	protected long write(@NonNull final FSFile fsFile, @NonNull final OutputStream output, final long first, final long length) throws IOException
+	{
+		return fileSystem.write(fsFile,output,first,length);
+	}
+
+	protected long write(@NonNull final FileChannel input, @NonNull final OutputStream output, @NonNull final BodyPart part) throws IOException
+	{
+		if (part.isBase64())
+			try (val encoder = new Base64OutputStream(new CloseShieldOutputStream(output)))
+			{
+				return fileSystem.write(input,encoder,part.getFirst(),part.getLength());
+			}
+		else
+			return fileSystem.write(input,output,part.getFirst(),part.getLength());
+	}
+
+	protected void setStatus206Headers(@NonNull final FSFile fsFile, @NonNull final ContentRange range)
 	{
 		val fileLength = fsFile.getFileLength();
 		response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
 		response.setHeader("Content-Type",fsFile.getContentType());
-		response.setHeader("Content-Length",Long.toString(range.getLength(fileLength)));
+		response.setHeader("Content-Length",Long.toString(getContentLength(fsFile,range.getLength(fileLength))));
 		response.setHeader(ContentRangeHeader.CONTENT_RANGE.getName(),ContentRangeUtils.createContentRangeHeader(range,fileLength));
-		if (isBinaryContent(fsFile))
-			response.setHeader("Content-Transfer-Encoding","binary");
-		fileSystem.write(fsFile,response.getOutputStream(),range.getFirst(fileLength),range.getLength(fileLength));
 	}
 
-	protected void writeResponse(@NonNull final HttpServletResponse response, @NonNull final FSFile fsFile, @NonNull final Seq<ContentRange> ranges) throws IOException
+	protected void setMultipartHeaders(@NonNull final String boundary, final long contentLength)
 	{
-		val fileLength = fsFile.getFileLength();
-		val boundary = createMimeBoundary();
-		val isBinary = isBinaryContent(fsFile);
 		response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
 		response.setHeader("Content-Type","multipart/byteranges; boundary=" + boundary);
-		//response.setHeader("Content-Length","");
-		try (val writer = new OutputStreamWriter(response.getOutputStream(),"UTF-8"))
-		{
-			for (val range: ranges)
-			{
-				writer.write("--");
-				writer.write(boundary);
-				writer.write("\r\n");
-				writer.write("Content-Type: " + fsFile.getContentType());
-				writer.write("\r\n");
-				writer.write(ContentRangeHeader.CONTENT_RANGE.getName() + ": " + ContentRangeUtils.createContentRangeHeader(range,fileLength));
-				writer.write("\r\n");
-				if (isBinary)
-				{
-					writer.write("Content-Transfer-Encoding: binary");
-					writer.write("\r\n");
-				}
-				writer.write("\r\n");
-				writer.flush();
-				fileSystem.write(fsFile,response.getOutputStream(),range.getFirst(fileLength),range.getLength(fileLength));
-				writer.write("\r\n");
-			}
-			writer.write("--");
-			writer.write(boundary);
-			writer.write("--");
-		}
+		response.setHeader("Content-Length",Long.toString(contentLength));
+	}
+
+	protected void setContentTransferEncodingHeader(@NonNull final FSFile fsFile)
+	{
+		if (isBinaryContent(fsFile))
+			response.setHeader("Content-Transfer-Encoding",getContentTransferEncoding());
+	}
+
+	protected String createPartHeader(@NonNull final FSFile fsFile, @NonNull final ContentRange range, @NonNull final String boundary)
+	{
+		return "--" + boundary + "\r\n"
+				+ "Content-Type: " + fsFile.getContentType() + "\r\n"
+				+ ContentRangeHeader.CONTENT_RANGE.getName() + ": " + ContentRangeUtils.createContentRangeHeader(range,fsFile.getFileLength()) + "\r\n"
+				+ (isBinaryContent(fsFile) ? "Content-Transfer-Encoding: " + getContentTransferEncoding() + "\r\n" : "")
+				+ "\r\n";
+	}
+
+	protected String getContentTransferEncoding()
+	{
+		return "binary";
+	}
+
+	protected boolean isBase64(final FSFile fsFile)
+	{
+		return false;
+	}
+
+	protected long getContentLength(final FSFile fsFile, final long length)
+	{
+		return isBase64(fsFile) ? BodyPart.getBase64Length(length) : length;
 	}
 
 	protected String createMimeBoundary()
@@ -122,6 +231,15 @@ class ResponseWriter
 		return !fsFile.getContentType().matches("^(text/.*|.*/xml)$");
 	}
 
+	public void offload(@NonNull final FSFile fsFile, @NonNull final String headerName, @NonNull final String location)
+	{
+		response.setStatus(HttpServletResponse.SC_OK);
+		response.setHeader("Content-Type",fsFile.getContentType());
+		if (fsFile.getName() != null)
+			response.setHeader("Content-Disposition","attachment; filename=\"" + fsFile.getName() + "\"");
+		response.setHeader(headerName,location);
+	}
+
 	public void setStatus200Headers(@NonNull final FSFile fsFile)
 	{
 		val fileLength = fsFile.getFileLength();
@@ -130,7 +248,7 @@ class ResponseWriter
 		response.setHeader("Content-Type",fsFile.getContentType());
 		if (fsFile.getName() != null)
 			response.setHeader("Content-Disposition","attachment; filename=\"" + fsFile.getName() + "\"");
-		response.setHeader("Content-Length",Long.toString(fileLength));
+		response.setHeader("Content-Length",Long.toString(getContentLength(fsFile,fileLength)));
 		response.setHeader(ContentRangeHeader.ACCEPT_RANGES.getName(),"bytes");
 		response.setHeader("ETag","\"" + ContentRangeUtils.getHashCode(lastModified.toEpochMilli()) + "\"");
 	}
@@ -15,9 +15,7 @@
  */
 package dev.luin.file.server.core.server.download.range;
 
-import io.vavr.collection.CharSeq;
 import io.vavr.control.Option;
-import io.vavr.control.Try;
 import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.NonNull;
@@ -41,13 +39,6 @@ public class ContentRange
 		return first != null || last != null ? new ContentRange(first,last) : null;
 	}
 
-	public static Option<ContentRange> of(final CharSeq first, final CharSeq last)
-	{
-		val f = Try.of(() -> first.trim().toLong()).getOrNull();
-		val l = Try.of(() -> last.trim().toLong()).getOrNull();
-		return f != null || l != null ? Option.of(new ContentRange(f,l)) : Option.none();
-	}
-
 	private ContentRange(final Long first, final Long last)
 	{
 		if (first == null && last == null)
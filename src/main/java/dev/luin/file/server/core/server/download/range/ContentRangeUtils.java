@@ -16,21 +16,23 @@
 package dev.luin.file.server.core.server.download.range;
 
 import java.text.ParseException;
+import java.time.DateTimeException;
 import java.util.Date;
 
-import io.vavr.collection.CharSeq;
 import io.vavr.collection.List;
 import io.vavr.collection.Seq;
-import io.vavr.control.Option;
 import io.vavr.control.Try;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 import lombok.val;
+import lombok.var;
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class ContentRangeUtils
 {
+	private static final String BYTES_UNIT = "bytes=";
+
 	public static boolean isValid(final long fileLength, @NonNull final Seq<ContentRange> ranges)
 	{
 		return ranges.exists(r -> r.getFirst(fileLength) < fileLength);
@@ -41,6 +43,28 @@ public class ContentRangeUtils
 		return ranges.filter(r -> r.getFirst(fileLength) < fileLength);
 	}
 
+	public static Seq<ContentRange> normalizeRanges(final long fileLength, @NonNull final Seq<ContentRange> ranges, @NonNull final ContentRangeLimits limits)
+	{
+		if (ranges.size() < 2)
+			return ranges;
+		val length = ranges.map(r -> r.getLength(fileLength)).sum().longValue();
+		if (length > fileLength * limits.getMaxLengthFactor())
+			return List.empty();
+		val result = mergeRanges(fileLength,ranges.sortBy(r -> r.getFirst(fileLength)),limits.getMaxGap());
+		return result.size() > limits.getMaxRanges() ? List.empty() : result;
+	}
+
+	private static Seq<ContentRange> mergeRanges(final long fileLength, final Seq<ContentRange> ranges, final long maxGap)
+	{
+		return ranges.tail().foldLeft(List.of(ranges.head()),(result,range) ->
+		{
+			val previous = result.head();
+			return range.getFirst(fileLength) <= previous.getLast(fileLength) + 1 + maxGap
+					? result.tail().prepend(ContentRange.of(previous.getFirst(fileLength),Math.max(previous.getLast(fileLength),range.getLast(fileLength))))
+					: result.prepend(range);
+		}).reverse();
+	}
+
 	public static int getHashCode(final long date)
 	{
 		return new Date(date).hashCode();
@@ -63,28 +87,72 @@ public class ContentRangeUtils
 
 	public static long getTime(@NonNull final String header) throws ParseException
 	{
-		return Try.of(() -> HttpDate.IMF_FIXDATE.getDateFormat().parse(header).getTime())
-				.orElse(Try.of(() -> HttpDate.RFC_850.getDateFormat().parse(header).getTime()))
-				.orElse(Try.of(() -> HttpDate.ANSI_C.getDateFormat().parse(header).getTime()))
-				.get();
+		try
+		{
+			return HttpDate.of(header).parse(header);
+		}
+		catch (DateTimeException e)
+		{
+			throw new ParseException(header,0);
+		}
 	}
 
 	public static Seq<ContentRange> parseRangeHeader(final String header)
 	{
-		if (header != null && header.startsWith("bytes"))
+		if (header != null && header.startsWith(BYTES_UNIT))
 		{
-			val byteRanges = header.substring("bytes=".length());
-			val ranges = CharSeq.of(byteRanges).split(",");
-			return ranges.flatMap(r -> createContentRange(r));
+			var result = List.<ContentRange>empty();
+			var start = BYTES_UNIT.length();
+			while (start <= header.length())
+			{
+				val end = indexOf(header,',',start,header.length());
+				val range = createContentRange(header,start,end);
+				if (range != null)
+					result = result.prepend(range);
+				start = end + 1;
+			}
+			return result.reverse();
 		}
 		else
 			return List.empty();
 	}
-	
-	private static Option<ContentRange> createContentRange(@NonNull final CharSeq range)
+
+	private static ContentRange createContentRange(final String header, final int start, final int end)
+	{
+		val dash = indexOf(header,'-',start,end);
+		val first = parseLong(header,start,dash);
+		val last = dash < end ? parseLong(header,dash + 1,end) : -1L;
+		return ContentRange.of(first < 0 ? null : first,last < 0 ? null : last);
+	}
+
+	private static int indexOf(final String s, final char c, final int start, final int end)
 	{
-		val parts = range.split("-",2);
-		return parts.headOption().flatMap(f -> ContentRange.of(f,parts.tail().headOption().getOrNull()));
+		// bounded, so finding the dash of a range does not scan the rest of the header
+		for (var i = start; i < end; i++)
+			if (s.charAt(i) == c)
+				return i;
+		return end;
+	}
+
+	private static long parseLong(final String s, final int start, final int end)
+	{
+		var first = start;
+		var last = end;
+		while (first < last && s.charAt(first) <= ' ')
+			first++;
+		while (last > first && s.charAt(last - 1) <= ' ')
+			last--;
+		if (first == last)
+			return -1L;
+		var result = 0L;
+		for (var i = first; i < last; i++)
+		{
+			val digit = s.charAt(i) - '0';
+			if (digit < 0 || digit > 9 || result > (Long.MAX_VALUE - digit) / 10)
+				return -1L;
+			result = result * 10 + digit;
+		}
+		return result;
 	}
 
 	public static String createContentRangeHeader(final long fileLength)
@@ -15,10 +15,13 @@
  */
 package dev.luin.file.server.core.server.download.range;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
 import java.util.Locale;
-import java.util.TimeZone;
 
 import lombok.AccessLevel;
 import lombok.NonNull;
@@ -28,23 +31,29 @@ import lombok.experimental.FieldDefaults;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 enum HttpDate
 {
-	IMF_FIXDATE("EEE, dd MMM yyyy HH:mm:ss z"),
-	RFC_850("EEEE, dd-MMM-yy HH:mm:ss z"),
-	ANSI_C("EEE MMM  d HH:mm:ss yyyy");
+	IMF_FIXDATE(new DateTimeFormatterBuilder().parseCaseInsensitive().appendPattern("EEE, dd MMM uuuu HH:mm:ss z")),
+	// two digit years are resolved like SimpleDateFormat does: within 80 years before and 20 years after now
+	RFC_850(new DateTimeFormatterBuilder().parseCaseInsensitive().appendPattern("EEEE, dd-MMM-").appendValueReduced(ChronoField.YEAR,2,2,LocalDate.now().minusYears(80)).appendPattern(" HH:mm:ss z")),
+	ANSI_C(new DateTimeFormatterBuilder().parseCaseInsensitive().appendPattern("EEE MMM ppd HH:mm:ss uuuu"));
 
-	private static final Locale LOCALE = Locale.ENGLISH;
-	private static final TimeZone TIME_ZONE = TimeZone.getTimeZone("GMT");
-	String pattern;
+	DateTimeFormatter dateFormatter;
 
-	HttpDate(@NonNull final String pattern)
+	HttpDate(@NonNull final DateTimeFormatterBuilder builder)
 	{
-		this.pattern = pattern;
+		// the day of the week is parsed, but not checked against the date (as with a lenient SimpleDateFormat)
+		this.dateFormatter = builder.toFormatter(Locale.ENGLISH)
+				.withZone(ZoneOffset.UTC)
+				.withResolverFields(ChronoField.YEAR,ChronoField.MONTH_OF_YEAR,ChronoField.DAY_OF_MONTH,ChronoField.HOUR_OF_DAY,ChronoField.MINUTE_OF_HOUR,ChronoField.SECOND_OF_MINUTE);
 	}
 
-	public DateFormat getDateFormat()
+	public static HttpDate of(@NonNull final String date)
 	{
-		val result = new SimpleDateFormat(pattern,LOCALE);
-		result.setTimeZone(TIME_ZONE);
-		return result;
+		val comma = date.indexOf(',');
+		return comma == 3 ? IMF_FIXDATE : comma > 3 ? RFC_850 : ANSI_C;
+	}
+
+	public long parse(@NonNull final String date)
+	{
+		return dateFormatter.parse(date,Instant::from).toEpochMilli();
 	}
 }
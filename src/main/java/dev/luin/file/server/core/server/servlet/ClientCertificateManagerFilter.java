@@ -32,7 +32,11 @@ import javax.servlet.http.HttpServletRequest;
 
 import org.apache.commons.lang3.StringUtils;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 import dev.luin.file.server.core.server.ClientCertificateManager;
+import io.vavr.control.Option;
 import lombok.AccessLevel;
 import lombok.val;
 import lombok.experimental.FieldDefaults;
@@ -44,12 +48,16 @@ public class ClientCertificateManagerFilter implements Filter
 {
 	String x509CertificateHeader;
 	boolean useX509CertificateHeader;
+	Cache<String,X509Certificate> certificateCache;
 
 	@Override
 	public void init(FilterConfig filterConfig) throws ServletException
 	{
 		x509CertificateHeader = filterConfig.getInitParameter("x509CertificateHeader");
 		useX509CertificateHeader = StringUtils.isEmpty(x509CertificateHeader);
+		certificateCache = Caffeine.newBuilder()
+				.maximumSize(Option.of(filterConfig.getInitParameter("x509CertificateCacheSize")).map(Long::parseLong).getOrElse(1000L))
+				.build();
 	}
 
 	@Override
@@ -64,10 +72,11 @@ public class ClientCertificateManagerFilter implements Filter
 			}
 			else
 			{
-				val certificate = decode(((HttpServletRequest)request).getHeader(x509CertificateHeader));
+				val certificate = getCertificate(((HttpServletRequest)request).getHeader(x509CertificateHeader));
 				ClientCertificateManager.setCertificate(certificate);
 			}
-			log.info("Certificate {}",ClientCertificateManager.getCertificate() != null ? ClientCertificateManager.getCertificate().getSubjectDN().toString() : "not found!");
+			if (log.isDebugEnabled())
+				log.debug("Certificate {}",ClientCertificateManager.getCertificate() != null ? ClientCertificateManager.getCertificate().getSubjectDN().toString() : "not found!");
 			chain.doFilter(request,response);
 		}
 		catch (CertificateException e)
@@ -76,10 +85,20 @@ public class ClientCertificateManagerFilter implements Filter
 		}
 	}
 
-	private X509Certificate decode(String certificate) throws CertificateException
+	X509Certificate getCertificate(String certificate) throws CertificateException
 	{
 		if (StringUtils.isBlank(certificate))
 			return null;
+		val result = certificateCache.getIfPresent(certificate);
+		if (result != null)
+			return result;
+		val x509Certificate = decode(certificate);
+		certificateCache.put(certificate,x509Certificate);
+		return x509Certificate;
+	}
+
+	static X509Certificate decode(String certificate) throws CertificateException
+	{
 		val is = new ByteArrayInputStream(certificate.getBytes(Charset.defaultCharset()));
 		val cf = CertificateFactory.getInstance("X509");
 		return (X509Certificate)cf.generateCertificate(is);
@@ -0,0 +1,57 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.server.servlet;
+
+import java.io.IOException;
+
+import javax.servlet.GenericServlet;
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.context.support.WebApplicationContextUtils;
+
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.prometheus.client.exporter.common.TextFormat;
+import lombok.AccessLevel;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+
+@FieldDefaults(level=AccessLevel.PRIVATE)
+public class Metrics extends GenericServlet
+{
+	private static final long serialVersionUID = 1L;
+	PrometheusMeterRegistry prometheusMeterRegistry;
+
+	@Override
+	public void init(final ServletConfig config) throws ServletException
+	{
+		super.init(config);
+		val wac = WebApplicationContextUtils.getRequiredWebApplicationContext(getServletContext());
+		prometheusMeterRegistry = wac.getBean(PrometheusMeterRegistry.class);
+	}
+
+	@Override
+	public void service(final ServletRequest request, final ServletResponse response) throws ServletException, IOException
+	{
+		val httpResponse = (HttpServletResponse)response;
+		httpResponse.setStatus(HttpServletResponse.SC_OK);
+		httpResponse.setContentType(TextFormat.CONTENT_TYPE_004);
+		prometheusMeterRegistry.scrape(httpResponse.getWriter());
+	}
+}
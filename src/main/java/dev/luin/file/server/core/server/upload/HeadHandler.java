@@ -20,10 +20,13 @@ import javax.servlet.http.HttpServletResponse;
 
 import dev.luin.file.server.core.file.FSFile;
 import dev.luin.file.server.core.file.FileSystem;
+import dev.luin.file.server.core.file.FileType;
 import dev.luin.file.server.core.http.HttpException;
 import dev.luin.file.server.core.server.BaseHandler;
 import dev.luin.file.server.core.server.upload.header.CacheControl;
 import dev.luin.file.server.core.server.upload.header.TusResumable;
+import dev.luin.file.server.core.server.upload.header.UploadConcat;
+import dev.luin.file.server.core.server.upload.header.UploadExpires;
 import dev.luin.file.server.core.server.upload.header.UploadOffset;
 import dev.luin.file.server.core.service.model.User;
 import lombok.NonNull;
@@ -50,7 +53,7 @@ class HeadHandler extends BaseHandler
 	{
 		TusResumable.of(request);
 		val path = request.getPathInfo();
-		val file = getFs().findFile(user,path).getOrElseThrow(() -> HttpException.notFound(path));
+		val file = getFs().findFile(user,path).filter(f -> !f.isExpired()).getOrElseThrow(() -> HttpException.notFound(path));
 		log.debug("GetFileInfo {}",file);
 		return file;
 	}
@@ -58,7 +61,10 @@ class HeadHandler extends BaseHandler
 	private void sendResponse(HttpServletResponse response, final FSFile file)
 	{
 		response.setStatus(HttpServletResponse.SC_CREATED);
-		UploadOffset.of(file.getFileLength()).write(response);
+		UploadOffset.of(getFs().getOffset(file)).write(response);
+		if (file.getType() == FileType.PARTIAL)
+			UploadConcat.partial().write(response);
+		UploadExpires.of(file.getUploadExpires()).forEach(h -> h.write(response));
 		TusResumable.get().write(response);
 		CacheControl.get().write(response);
 	}
@@ -29,6 +29,8 @@ import dev.luin.file.server.core.server.BaseHandler;
 import dev.luin.file.server.core.server.upload.header.TusResumable;
 import dev.luin.file.server.core.server.upload.header.XHTTPMethodOverride;
 import dev.luin.file.server.core.user.UserManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.vavr.control.Try;
 import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.NonNull;
@@ -48,9 +50,9 @@ public class HttpHandler extends dev.luin.file.server.core.server.HttpHandler
 	OptionsHandler optionsHandler;
 
 	@Builder(access = AccessLevel.PACKAGE)
-	public HttpHandler(@NonNull UserManager userManager, @NonNull HeadHandler headHandler, PostHandler postHandler, PatchHandler patchHandler, DeleteHandler deleteHandler, OptionsHandler optionsHandler)
+	public HttpHandler(@NonNull UserManager userManager, @NonNull MeterRegistry meterRegistry, @NonNull HeadHandler headHandler, PostHandler postHandler, PatchHandler patchHandler, DeleteHandler deleteHandler, OptionsHandler optionsHandler)
 	{
-		super(userManager);
+		super(userManager,meterRegistry);
 		this.headHandler = headHandler;
 		this.postHandler = postHandler;
 		this.patchHandler = patchHandler;
@@ -60,12 +62,13 @@ public class HttpHandler extends dev.luin.file.server.core.server.HttpHandler
 	
 	public void handle(@NonNull final HttpServletRequest request, @NonNull final HttpServletResponse response) throws IOException
 	{
+		val sample = startTimer();
+		val handler = Try.of(() -> getHandler(request));
 		try
 		{
 			val user = authenticate(request);
 			log.info("User {}",user);
-			val handler = getHandler(request);
-			handler.handle(request,response,user);
+			handler.get().handle(request,response,user);
 		}
 		catch (HttpException e)
 		{
@@ -77,6 +80,10 @@ public class HttpHandler extends dev.luin.file.server.core.server.HttpHandler
 			log.error("",e);
 			response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
 		}
+		finally
+		{
+			record("upload",sample,handler,request,response);
+		}
 	}
 
 	private BaseHandler getHandler(final HttpServletRequest request)
@@ -22,6 +22,7 @@ import javax.servlet.http.HttpServletResponse;
 
 import dev.luin.file.server.core.file.FileSystem;
 import dev.luin.file.server.core.server.BaseHandler;
+import dev.luin.file.server.core.server.upload.header.TusChecksumAlgorithm;
 import dev.luin.file.server.core.server.upload.header.TusExtension;
 import dev.luin.file.server.core.server.upload.header.TusMaxSize;
 import dev.luin.file.server.core.server.upload.header.TusResumable;
@@ -51,5 +52,6 @@ class OptionsHandler extends BaseHandler
 		TusVersion.get().write(response);
 		TusMaxSize.get().forEach(h -> h.write(response));
 		TusExtension.get().write(response);
+		TusChecksumAlgorithm.get().write(response);
 	}
 }
@@ -20,37 +20,71 @@ import java.io.IOException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import dev.luin.file.server.core.file.Checksum;
+import dev.luin.file.server.core.file.ChecksumMismatchException;
 import dev.luin.file.server.core.file.FSFile;
 import dev.luin.file.server.core.file.FileSystem;
+import dev.luin.file.server.core.file.FileType;
+import dev.luin.file.server.core.file.UploadConflictException;
+import dev.luin.file.server.core.file.UploadLengthExceededException;
 import dev.luin.file.server.core.http.HttpException;
 import dev.luin.file.server.core.server.BaseHandler;
 import dev.luin.file.server.core.server.upload.header.ContentLength;
 import dev.luin.file.server.core.server.upload.header.ContentType;
 import dev.luin.file.server.core.server.upload.header.TusResumable;
+import dev.luin.file.server.core.server.upload.header.UploadChecksum;
+import dev.luin.file.server.core.server.upload.header.UploadExpires;
 import dev.luin.file.server.core.server.upload.header.UploadLength;
 import dev.luin.file.server.core.server.upload.header.UploadOffset;
 import dev.luin.file.server.core.service.model.User;
 import io.vavr.control.Option;
+import lombok.AccessLevel;
 import lombok.val;
+import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
+@FieldDefaults(level=AccessLevel.PRIVATE, makeFinal=true)
 class PatchHandler extends BaseHandler
 {
-	public PatchHandler(FileSystem fs)
+	boolean async;
+	long asyncTimeout;
+
+	public PatchHandler(FileSystem fs, boolean async, long asyncTimeout)
 	{
 		super(fs);
+		this.async = async;
+		this.asyncTimeout = asyncTimeout;
 	}
 
 	@Override
 	public void handle(HttpServletRequest request, HttpServletResponse response, User user) throws IOException
 	{
 		log.debug("HandlePatch {}",user);
-		val file = handleRequest(request,user);
-		sendResponse(response,file);
+		val file = validateRequest(request,user);
+		try
+		{
+			if (async && request.isAsyncSupported())
+				handleRequestAsync(request,file);
+			else
+			{
+				val newFile = handleRequest(request,file);
+				sendResponse(response,newFile,getFs().getOffset(newFile));
+			}
+		}
+		catch (UploadConflictException e)
+		{
+			log.warn(e.getMessage());
+			throw HttpException.conflictException();
+		}
+		catch (UploadLengthExceededException e)
+		{
+			log.warn(e.getMessage());
+			throw HttpException.badRequestException();
+		}
 	}
 
-	private FSFile handleRequest(HttpServletRequest request, User user) throws IOException
+	private FSFile validateRequest(HttpServletRequest request, User user)
 	{
 		TusResumable.of(request);
 		ContentType.of(request);
@@ -58,32 +92,77 @@ class PatchHandler extends BaseHandler
 		val uploadOffset = UploadOffset.of(request);
 		val file = getFile(request,user);
 		log.info("Upload file {}",file);
+		if (file.getType() == FileType.FINAL)
+			throw HttpException.forbiddenException();
 		validate(file,uploadOffset);
 		validate(contentLength,file.getLength(),uploadOffset);
-		val newFile = getFs().append(file,request.getInputStream(),contentLength.map(l -> l.getValue()).getOrNull());
-		if (newFile.isCompleted())
-			log.info("Uploaded file {}",newFile);
 		return file;
 	}
 
-	private void sendResponse(HttpServletResponse response, final FSFile file)
+	private FSFile handleRequest(HttpServletRequest request, FSFile file) throws IOException
+	{
+		val contentLength = ContentLength.of(request);
+		val uploadOffset = UploadOffset.of(request);
+		val checksum = getChecksum(request);
+		try
+		{
+			val newFile = getFs().append(file,uploadOffset.getValue(),request.getInputStream(),contentLength.map(l -> l.getValue()).getOrNull(),checksum);
+			if (getFs().isCompleted(newFile))
+				log.info("Uploaded file {}",newFile);
+			return newFile;
+		}
+		catch (ChecksumMismatchException e)
+		{
+			log.warn(e.getMessage());
+			throw HttpException.checksumMismatchException();
+		}
+	}
+
+	private void handleRequestAsync(HttpServletRequest request, FSFile file) throws IOException
+	{
+		val appender = getFs().startAppend(file,UploadOffset.of(request).getValue(),ContentLength.of(request).map(l -> l.getValue()).getOrNull(),getChecksum(request));
+		try
+		{
+			val asyncContext = request.startAsync();
+			asyncContext.setTimeout(asyncTimeout);
+			val input = request.getInputStream();
+			val listener = new UploadReadListener(getFs(),asyncContext,input,appender);
+			asyncContext.addListener(listener);
+			input.setReadListener(listener);
+		}
+		catch (IOException | RuntimeException e)
+		{
+			getFs().abortAppend(appender);
+			if (request.isAsyncStarted())
+				request.getAsyncContext().complete();
+			throw e;
+		}
+	}
+
+	static void sendResponse(HttpServletResponse response, final FSFile file, final long offset)
 	{
 		response.setStatus(HttpServletResponse.SC_NO_CONTENT);
-		UploadOffset.of(file.getLength()).write(response);
+		UploadOffset.of(offset).write(response);
+		UploadExpires.of(file.getUploadExpires()).forEach(h -> h.write(response));
 		TusResumable.get().write(response);
 	}
 
+	private Checksum getChecksum(HttpServletRequest request)
+	{
+		return UploadChecksum.of(request).map(c -> c.toChecksum()).getOrNull();
+	}
+
 	private FSFile getFile(HttpServletRequest request, User user)
 	{
 		val path = request.getPathInfo();
-		val file = getFs().findFile(user,path).getOrElseThrow(() -> HttpException.notFound(path));
+		val file = getFs().findFile(user,path).filter(f -> !f.isExpired()).getOrElseThrow(() -> HttpException.notFound(path));
 		val uploadLength = file.getLength() == null ? UploadLength.of(request) : Option.<UploadLength>none();
 		return uploadLength.map(l -> file.withLength(l.getValue())).getOrElse(file);
 	}
 
 	private void validate(FSFile file, UploadOffset uploadOffset)
 	{
-		if (file.getFileLength() != uploadOffset.getValue())
+		if (!getFs().isValidOffset(file,uploadOffset.getValue()))
 			throw HttpException.conflictException();
 	}
 
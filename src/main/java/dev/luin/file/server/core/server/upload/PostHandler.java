@@ -16,22 +16,33 @@
 package dev.luin.file.server.core.server.upload;
 
 import java.io.IOException;
+import java.net.URI;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import dev.luin.file.server.core.file.ChecksumMismatchException;
 import dev.luin.file.server.core.file.FSFile;
 import dev.luin.file.server.core.file.FileSystem;
+import dev.luin.file.server.core.file.FileType;
+import dev.luin.file.server.core.file.UploadLengthExceededException;
 import dev.luin.file.server.core.http.HttpException;
 import dev.luin.file.server.core.server.BaseHandler;
 import dev.luin.file.server.core.server.upload.header.ContentLength;
+import dev.luin.file.server.core.server.upload.header.ContentType;
 import dev.luin.file.server.core.server.upload.header.Location;
+import dev.luin.file.server.core.server.upload.header.TusMaxSize;
 import dev.luin.file.server.core.server.upload.header.TusResumable;
+import dev.luin.file.server.core.server.upload.header.UploadChecksum;
+import dev.luin.file.server.core.server.upload.header.UploadConcat;
 import dev.luin.file.server.core.server.upload.header.UploadDeferLength;
+import dev.luin.file.server.core.server.upload.header.UploadExpires;
 import dev.luin.file.server.core.server.upload.header.UploadLength;
 import dev.luin.file.server.core.server.upload.header.UploadMetadata;
+import dev.luin.file.server.core.server.upload.header.UploadOffset;
 import dev.luin.file.server.core.service.model.User;
 import io.vavr.control.Option;
+import io.vavr.control.Try;
 import lombok.AccessLevel;
 import lombok.NonNull;
 import lombok.val;
@@ -56,7 +67,7 @@ class PostHandler extends BaseHandler
 	{
 		log.debug("HandlePost {}",user);
 		val file = handleRequest(request,user);
-		sendResponse(response,file);
+		sendResponse(response,file,ContentLength.of(request).exists(l -> l.getValue() > 0));
 	}
 
 	private FSFile handleRequest(final HttpServletRequest request, User user) throws IOException
@@ -65,21 +76,94 @@ class PostHandler extends BaseHandler
 		val uploadMetadata = UploadMetadata.of(request);
 		val filename = uploadMetadata.map(m -> m.getParameter("filename")).getOrNull();
 		val contentType = uploadMetadata.map(m -> m.getParameter("Content-Type")).getOrElse("application/octet-stream");
-		getContentLength(request);
+		val contentLength = getContentLength(request);
+		val uploadConcat = UploadConcat.of(request);
+		if (uploadConcat.filter(c -> c.isFinal()).isDefined())
+		{
+			if (contentLength.isDefined())
+				throw HttpException.invalidHeaderException(ContentLength.HEADER_NAME);
+			return concatenateFiles(request,user,filename,contentType,uploadConcat.get());
+		}
 		val uploadLength = getUploadLength(request);
-		val file = getFs().createEmptyFile(filename,contentType,uploadLength.map(l -> l.getValue()).getOrNull(),user.getId());
+		validate(contentLength,uploadLength);
+		val uploadChecksum = UploadChecksum.of(request);
+		val type = uploadConcat.map(c -> c.getType()).getOrNull();
+		val file = getFs().createEmptyFile(filename,contentType,uploadLength.map(l -> l.getValue()).getOrNull(),user.getId(),type);
 		log.info("Created file {}",file);
+		return contentLength.isDefined() ? append(request,file,contentLength.get(),uploadChecksum) : file;
+	}
+
+	private FSFile append(final HttpServletRequest request, final FSFile file, final ContentLength contentLength, final Option<UploadChecksum> uploadChecksum)
+	{
+		try
+		{
+			val result = getFs().append(file,0L,request.getInputStream(),contentLength.getValue(),uploadChecksum.map(c -> c.toChecksum()).getOrNull());
+			if (getFs().isCompleted(result))
+				log.info("Uploaded file {}",result);
+			return result;
+		}
+		catch (ChecksumMismatchException e)
+		{
+			log.warn(e.getMessage());
+			throw rejectUpload(file,HttpException.checksumMismatchException());
+		}
+		catch (UploadLengthExceededException e)
+		{
+			log.warn(e.getMessage());
+			throw rejectUpload(file,HttpException.badRequestException());
+		}
+		catch (IOException e)
+		{
+			// the upload exists now, so the client can resume it from the returned offset
+			log.warn("Error uploading file " + file.getVirtualPath(),e);
+			return file;
+		}
+	}
+
+	private HttpException rejectUpload(final FSFile file, final HttpException exception)
+	{
+		// the location of the upload is not returned, so the client cannot resume it
+		getFs().deleteFile(file,true);
+		return exception;
+	}
+
+	private FSFile concatenateFiles(final HttpServletRequest request, User user, String filename, String contentType, UploadConcat uploadConcat) throws IOException
+	{
+		if (UploadLength.of(request).isDefined())
+			throw HttpException.invalidHeaderException(UploadLength.HEADER_NAME);
+		val partialFiles = uploadConcat.getPartialUploads().map(u -> getPartialFile(user,u));
+		if (TusMaxSize.getMaxSize() != null && partialFiles.map(f -> f.getLength()).sum().longValue() > TusMaxSize.getMaxSize())
+			throw HttpException.requestEntityTooLargeException();
+		val file = getFs().concatenateFiles(filename,contentType,user.getId(),partialFiles);
+		log.info("Created file {} from {}",file,partialFiles.map(f -> f.getVirtualPath()).mkString(","));
 		return file;
 	}
 
+	private FSFile getPartialFile(User user, String partialUpload)
+	{
+		val path = Try.of(() -> new URI(partialUpload).getPath()).filter(p -> p != null && p.contains("/"))
+				.getOrElseThrow(() -> HttpException.invalidHeaderException(UploadConcat.HEADER_NAME));
+		val virtualPath = path.substring(path.lastIndexOf('/'));
+		return getFs().findFile(user,virtualPath)
+				.filter(f -> f.getType() == FileType.PARTIAL && f.isCompleted())
+				.getOrElseThrow(() -> HttpException.invalidHeaderException(UploadConcat.HEADER_NAME));
+	}
+
 	private Option<ContentLength> getContentLength(final HttpServletRequest request)
 	{
-		val result = ContentLength.of(request);
+		val result = ContentLength.of(request).filter(l -> l.getValue() > 0);
 		if (result.isDefined())
-			result.filter(l -> l.getValue() == 0).getOrElseThrow(() -> HttpException.invalidHeaderException(ContentLength.HEADER_NAME));
+			ContentType.of(request);
 		return result;
 	}
 
+	private void validate(final Option<ContentLength> contentLength, final Option<UploadLength> uploadLength)
+	{
+		if (contentLength.isDefined() && uploadLength.isDefined())
+			if (contentLength.get().getValue() > uploadLength.get().getValue())
+				throw HttpException.badRequestException();
+	}
+
 	private Option<UploadLength> getUploadLength(final HttpServletRequest request)
 	{
 		val uploadLength = UploadLength.of(request);
@@ -88,10 +172,13 @@ class PostHandler extends BaseHandler
 		return uploadLength;
 	}
 
-	private void sendResponse(final HttpServletResponse response, final FSFile file)
+	private void sendResponse(final HttpServletResponse response, final FSFile file, final boolean withUpload)
 	{
 		response.setStatus(HttpServletResponse.SC_CREATED);
 		Location.of(uploadPath + file.getVirtualPath()).forEach(h -> h.write(response));
+		if (withUpload)
+			UploadOffset.of(getFs().getOffset(file)).write(response);
+		UploadExpires.of(file.getUploadExpires()).forEach(h -> h.write(response));
 		TusResumable.get().write(response);
 	}
 }
@@ -0,0 +1,127 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.server.upload;
+
+import java.io.IOException;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletResponse;
+
+import dev.luin.file.server.core.file.Appender;
+import dev.luin.file.server.core.file.ChecksumMismatchException;
+import dev.luin.file.server.core.file.FileSystem;
+import dev.luin.file.server.core.file.UploadLengthExceededException;
+import dev.luin.file.server.core.http.HttpException;
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@FieldDefaults(level=AccessLevel.PRIVATE, makeFinal=true)
+@RequiredArgsConstructor
+class UploadReadListener implements ReadListener, AsyncListener
+{
+	private static final int BUFFER_SIZE = 64 * 1024;
+	@NonNull
+	FileSystem fs;
+	@NonNull
+	AsyncContext asyncContext;
+	@NonNull
+	ServletInputStream input;
+	@NonNull
+	Appender appender;
+	byte[] buffer = new byte[BUFFER_SIZE];
+
+	@Override
+	public void onDataAvailable() throws IOException
+	{
+		int count;
+		while (input.isReady() && (count = input.read(buffer)) != -1)
+			appender.getOutput().write(buffer,0,count);
+	}
+
+	@Override
+	public void onAllDataRead() throws IOException
+	{
+		val response = (HttpServletResponse)asyncContext.getResponse();
+		try
+		{
+			val file = fs.finishAppend(appender);
+			if (fs.isCompleted(file))
+				log.info("Uploaded file {}",file);
+			PatchHandler.sendResponse(response,file,fs.getOffset(file));
+		}
+		catch (ChecksumMismatchException e)
+		{
+			log.warn(e.getMessage());
+			response.setStatus(HttpException.SC_CHECKSUM_MISMATCH);
+		}
+		catch (IOException e)
+		{
+			log.error("",e);
+			response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+		}
+		finally
+		{
+			asyncContext.complete();
+		}
+	}
+
+	@Override
+	public void onError(final Throwable t)
+	{
+		log.error("",t);
+		fs.abortAppend(appender);
+		((HttpServletResponse)asyncContext.getResponse()).setStatus(t instanceof UploadLengthExceededException ? HttpServletResponse.SC_BAD_REQUEST : HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+		asyncContext.complete();
+	}
+
+	@Override
+	public void onTimeout(final AsyncEvent event)
+	{
+		log.warn("Timeout reading the request body");
+		fs.abortAppend(appender);
+		((HttpServletResponse)asyncContext.getResponse()).setStatus(HttpServletResponse.SC_REQUEST_TIMEOUT);
+		asyncContext.complete();
+	}
+
+	@Override
+	public void onError(final AsyncEvent event)
+	{
+		log.error("",event.getThrowable());
+		fs.abortAppend(appender);
+		asyncContext.complete();
+	}
+
+	@Override
+	public void onComplete(final AsyncEvent event)
+	{
+		// releases the upload when the request is completed without the body being read (a no-op otherwise)
+		fs.abortAppend(appender);
+	}
+
+	@Override
+	public void onStartAsync(final AsyncEvent event)
+	{
+	}
+}
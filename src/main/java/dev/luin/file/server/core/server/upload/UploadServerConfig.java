@@ -23,6 +23,7 @@ import org.springframework.context.annotation.Configuration;
 import dev.luin.file.server.core.file.FileSystem;
 import dev.luin.file.server.core.server.upload.header.TusMaxSize;
 import dev.luin.file.server.core.user.UserManager;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 
@@ -34,19 +35,26 @@ public class UploadServerConfig
 	UserManager userManager;
 	@Autowired
 	FileSystem fs;
+	@Autowired
+	MeterRegistry meterRegistry;
 	@Value("${server.path}")
 	String basePath;
 	@Value("${file.maxFileSize}")
 	Long maxFileSize;
+	@Value("${server.upload.async}")
+	boolean async;
+	@Value("${server.upload.asyncTimeout}")
+	long asyncTimeout;
 
 	@Bean("UploadHttpHandler")
 	public HttpHandler httpHandler()
 	{
 		return HttpHandler.builder()
 				.userManager(userManager)
+				.meterRegistry(meterRegistry)
 				.headHandler(new HeadHandler(fs))
 				.postHandler(new PostHandler(fs,basePath + "/upload"))
-				.patchHandler(new PatchHandler(fs))
+				.patchHandler(new PatchHandler(fs,async,asyncTimeout))
 				.deleteHandler(new DeleteHandler(fs))
 				.optionsHandler(new OptionsHandler(fs))
 				.build();
@@ -0,0 +1,47 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.server.upload.header;
+
+import dev.luin.file.server.core.http.ConstHeaderValue;
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.experimental.FieldDefaults;
+
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TusChecksumAlgorithm extends TusHeader
+{
+	private static final TusChecksumAlgorithm DEFAULT = ConstHeaderValue.of(UploadChecksum.getAlgorithms()).map(v -> new TusChecksumAlgorithm(v)).get();
+
+	public static TusChecksumAlgorithm get()
+	{
+		return DEFAULT;
+	}
+
+	@NonNull
+	ConstHeaderValue value;
+
+	private TusChecksumAlgorithm(@NonNull ConstHeaderValue value)
+	{
+		super("Tus-Checksum-Algorithm");
+		this.value = value;
+	}
+
+	@Override
+	public String toString()
+	{
+		return value.toString();
+	}
+}
@@ -23,7 +23,7 @@ import lombok.experimental.FieldDefaults;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class TusExtension extends TusHeader
 {
-	private static final TusExtension DEFAULT = ConstHeaderValue.of("create").map(v -> new TusExtension(v)).get();
+	private static final TusExtension DEFAULT = ConstHeaderValue.of("create,creation-with-upload,concatenation,checksum,expiration").map(v -> new TusExtension(v)).get();
 
 	public static TusExtension get()
 	{
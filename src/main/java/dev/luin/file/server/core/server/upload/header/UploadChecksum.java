@@ -0,0 +1,82 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.server.upload.header;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.commons.codec.binary.Base64;
+
+import dev.luin.file.server.core.file.Checksum;
+import dev.luin.file.server.core.http.HttpException;
+import io.vavr.collection.LinkedHashMap;
+import io.vavr.collection.Map;
+import io.vavr.control.Option;
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UploadChecksum extends TusHeader
+{
+	public static final String HEADER_NAME = "Upload-Checksum";
+	private static final Map<String,String> ALGORITHMS = LinkedHashMap.of("md5","MD5","sha1","SHA-1","sha256","SHA-256","sha512","SHA-512");
+
+	public static Option<UploadChecksum> of(HttpServletRequest request)
+	{
+		val value = request.getHeader(HEADER_NAME);
+		return value == null ? Option.<UploadChecksum>none() : Option.of(of(value.trim()));
+	}
+
+	private static UploadChecksum of(String value)
+	{
+		val parts = value.split(" ",2);
+		if (parts.length != 2 || !Base64.isBase64(parts[1].trim()))
+			throw HttpException.invalidHeaderException(HEADER_NAME);
+		val algorithm = parts[0].toLowerCase();
+		if (!ALGORITHMS.containsKey(algorithm))
+			throw HttpException.badRequestException();
+		return new UploadChecksum(algorithm,parts[1].trim());
+	}
+
+	public static String getAlgorithms()
+	{
+		return ALGORITHMS.keySet().mkString(",");
+	}
+
+	@NonNull
+	String algorithm;
+	@NonNull
+	String value;
+
+	private UploadChecksum(@NonNull String algorithm, @NonNull String value)
+	{
+		super(HEADER_NAME);
+		this.algorithm = algorithm;
+		this.value = value;
+	}
+
+	public Checksum toChecksum()
+	{
+		return new Checksum(ALGORITHMS.get(algorithm).get(),Base64.decodeBase64(value));
+	}
+
+	@Override
+	public String toString()
+	{
+		return algorithm + " " + value;
+	}
+}
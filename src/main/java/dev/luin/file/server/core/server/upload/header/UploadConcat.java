@@ -0,0 +1,90 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.server.upload.header;
+
+import javax.servlet.http.HttpServletRequest;
+
+import dev.luin.file.server.core.file.FileType;
+import dev.luin.file.server.core.http.HttpException;
+import io.vavr.collection.List;
+import io.vavr.collection.Seq;
+import io.vavr.control.Option;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Getter
+public class UploadConcat extends TusHeader
+{
+	public static final String HEADER_NAME = "Upload-Concat";
+	private static final String PARTIAL = "partial";
+	private static final String FINAL = "final;";
+	private static final UploadConcat PARTIAL_UPLOAD = new UploadConcat(FileType.PARTIAL,List.empty());
+
+	public static Option<UploadConcat> of(HttpServletRequest request)
+	{
+		val value = request.getHeader(HEADER_NAME);
+		return value == null ? Option.<UploadConcat>none() : Option.of(of(value.trim()));
+	}
+
+	private static UploadConcat of(String value)
+	{
+		if (PARTIAL.equals(value))
+			return PARTIAL_UPLOAD;
+		if (!value.startsWith(FINAL))
+			throw HttpException.invalidHeaderException(HEADER_NAME);
+		val partialUploads = List.of(value.substring(FINAL.length()).trim().split("\\s+")).filter(u -> !u.isEmpty());
+		if (partialUploads.isEmpty())
+			throw HttpException.invalidHeaderException(HEADER_NAME);
+		return new UploadConcat(FileType.FINAL,partialUploads);
+	}
+
+	public static UploadConcat partial()
+	{
+		return PARTIAL_UPLOAD;
+	}
+
+	@NonNull
+	FileType type;
+	@NonNull
+	Seq<String> partialUploads;
+
+	private UploadConcat(@NonNull FileType type, @NonNull Seq<String> partialUploads)
+	{
+		super(HEADER_NAME);
+		this.type = type;
+		this.partialUploads = partialUploads;
+	}
+
+	public boolean isPartial()
+	{
+		return type == FileType.PARTIAL;
+	}
+
+	public boolean isFinal()
+	{
+		return type == FileType.FINAL;
+	}
+
+	@Override
+	public String toString()
+	{
+		return isPartial() ? PARTIAL : FINAL + partialUploads.mkString(" ");
+	}
+}
@@ -0,0 +1,59 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.server.upload.header;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+import io.vavr.control.Option;
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.experimental.FieldDefaults;
+
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UploadExpires extends TusHeader
+{
+	public static final String HEADER_NAME = "Upload-Expires";
+	// RFC 7231 IMF-fixdate, RFC_1123_DATE_TIME does not pad the day of the month
+	private static final DateTimeFormatter IMF_FIXDATE = DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'",Locale.ENGLISH).withZone(ZoneOffset.UTC);
+
+	public static Option<UploadExpires> of(Instant value)
+	{
+		return Option.of(value).map(v -> new UploadExpires(v));
+	}
+
+	@NonNull
+	Instant value;
+
+	private UploadExpires(@NonNull Instant value)
+	{
+		super(HEADER_NAME);
+		this.value = value;
+	}
+
+	public Instant getValue()
+	{
+		return value;
+	}
+
+	@Override
+	public String toString()
+	{
+		return IMF_FIXDATE.format(value);
+	}
+}
@@ -42,7 +42,7 @@ public class UploadLength extends TusHeader
 						.map(v -> new UploadLength(v))
 						.<HttpException>getOrElseThrow(() -> HttpException.invalidHeaderException(HEADER_NAME)));
 		if (result.isDefined())
-			result.filter(v -> v.getValue() <= TusMaxSize.getMaxSize()).getOrElseThrow(() -> HttpException.requestEntityTooLargeException());
+			result.filter(v -> TusMaxSize.getMaxSize() == null || v.getValue() <= TusMaxSize.getMaxSize()).getOrElseThrow(() -> HttpException.requestEntityTooLargeException());
 		return result;
 	}
 
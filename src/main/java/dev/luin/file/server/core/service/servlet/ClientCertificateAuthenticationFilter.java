@@ -29,9 +29,13 @@ import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletResponse;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 import dev.luin.file.server.core.KeyStoreManager;
 import dev.luin.file.server.core.KeyStoreManager.KeyStoreType;
 import dev.luin.file.server.core.server.ClientCertificateManager;
+import io.vavr.control.Option;
 import lombok.AccessLevel;
 import lombok.NonNull;
 import lombok.val;
@@ -42,6 +46,7 @@ public class ClientCertificateAuthenticationFilter implements Filter
 {
 	@NonNull
 	KeyStore trustStore;
+	Cache<X509Certificate,Boolean> validationCache;
 
 	@Override
 	public void init(final FilterConfig filterConfig) throws ServletException
@@ -52,6 +57,9 @@ public class ClientCertificateAuthenticationFilter implements Filter
 			val trustStorePath = filterConfig.getInitParameter("trustStorePath");
 			val trustStorePassword = filterConfig.getInitParameter("trustStorePassword");
 			trustStore = KeyStoreManager.getKeyStore(KeyStoreType.valueOf(trustStoreType),trustStorePath,trustStorePassword);
+			validationCache = Caffeine.newBuilder()
+					.maximumSize(Option.of(filterConfig.getInitParameter("validationCacheSize")).map(Long::parseLong).getOrElse(1000L))
+					.build();
 		}
 		catch (GeneralSecurityException | IOException e)
 		{
@@ -65,7 +73,7 @@ public class ClientCertificateAuthenticationFilter implements Filter
 		try
 		{
 			val certificate = ClientCertificateManager.getCertificate();
-			if (validate(trustStore,certificate))
+			if (isValid(certificate))
 				chain.doFilter(request,response);
 			else
 				((HttpServletResponse)response).setStatus(HttpServletResponse.SC_UNAUTHORIZED);
@@ -76,6 +84,18 @@ public class ClientCertificateAuthenticationFilter implements Filter
 		}
 	}
 
+	private boolean isValid(final X509Certificate x509Certificate) throws KeyStoreException
+	{
+		if (x509Certificate == null)
+			return false;
+		val result = validationCache.getIfPresent(x509Certificate);
+		if (result != null)
+			return result;
+		val valid = validate(trustStore,x509Certificate);
+		validationCache.put(x509Certificate,valid);
+		return valid;
+	}
+
 	private boolean validate(final KeyStore trustStore, final X509Certificate x509Certificate) throws KeyStoreException
 	{
 		return x509Certificate != null && trustStore.getCertificateAlias(x509Certificate) != null;
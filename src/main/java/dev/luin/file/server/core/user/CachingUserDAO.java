@@ -0,0 +1,95 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.user;
+
+import java.time.Duration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import dev.luin.file.server.core.service.model.User;
+import io.vavr.collection.Seq;
+import io.vavr.control.Option;
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+
+@FieldDefaults(level=AccessLevel.PRIVATE, makeFinal=true)
+class CachingUserDAO implements UserDAO
+{
+	@NonNull
+	UserDAO userDAO;
+	@NonNull
+	Cache<String,User> cache;
+
+	public CachingUserDAO(@NonNull final UserDAO userDAO, final long maximumSize, @NonNull final Duration expireAfterWrite)
+	{
+		this.userDAO = userDAO;
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(expireAfterWrite)
+				.build();
+	}
+
+	@Override
+	public Option<User> findUser(final long id)
+	{
+		return userDAO.findUser(id);
+	}
+
+	@Override
+	public Option<User> findUser(@NonNull final byte[] certificate)
+	{
+		return Option.of(cache.get(UserDAOImpl.getFingerprint(certificate),f -> userDAO.findUser(certificate).getOrNull()));
+	}
+
+	@Override
+	public Seq<User> selectUsers()
+	{
+		return userDAO.selectUsers();
+	}
+
+	@Override
+	public User insertUser(@NonNull final User user)
+	{
+		val result = userDAO.insertUser(user);
+		cache.invalidate(UserDAOImpl.getFingerprint(user.getCertificate()));
+		return result;
+	}
+
+	@Override
+	public long updateUser(@NonNull final User user)
+	{
+		val result = userDAO.updateUser(user);
+		invalidate(user.getId());
+		cache.invalidate(UserDAOImpl.getFingerprint(user.getCertificate()));
+		return result;
+	}
+
+	@Override
+	public long deleteUser(final long id)
+	{
+		val result = userDAO.deleteUser(id);
+		invalidate(id);
+		return result;
+	}
+
+	private void invalidate(final Long id)
+	{
+		cache.asMap().values().removeIf(u -> u.getId().equals(id));
+	}
+}
@@ -44,6 +44,8 @@ public class QUser extends com.querydsl.sql.RelationalPathBase<QUser> {
 
     public final SimplePath<byte[]> certificate = createSimple("certificate", byte[].class);
 
+    public final StringPath certificateFingerprint = createString("certificateFingerprint");
+
     public final NumberPath<Long> id = createNumber("id", Long.class);
 
     public final StringPath name = createString("name");
@@ -79,6 +81,7 @@ public class QUser extends com.querydsl.sql.RelationalPathBase<QUser> {
 
     public void addMetadata() {
         addMetadata(certificate, ColumnMetadata.named("certificate").withIndex(3).ofType(Types.BLOB).withSize(1073741824).notNull());
+        addMetadata(certificateFingerprint, ColumnMetadata.named("certificate_fingerprint").withIndex(4).ofType(Types.VARCHAR).withSize(64));
         addMetadata(id, ColumnMetadata.named("id").withIndex(1).ofType(Types.BIGINT).withSize(32).notNull());
         addMetadata(name, ColumnMetadata.named("name").withIndex(2).ofType(Types.VARCHAR).withSize(256).notNull());
     }
@@ -15,6 +15,9 @@
  */
 package dev.luin.file.server.core.user;
 
+import java.util.Arrays;
+
+import org.apache.commons.codec.digest.DigestUtils;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.querydsl.core.types.ConstructorExpression;
@@ -30,7 +33,9 @@ import lombok.AllArgsConstructor;
 import lombok.NonNull;
 import lombok.val;
 import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @FieldDefaults(level=AccessLevel.PRIVATE, makeFinal=true)
 @AllArgsConstructor
 @Transactional(transactionManager = "dataSourceTransactionManager")
@@ -51,12 +56,17 @@ class UserDAOImpl implements UserDAO
 	}				
 
 	@Override
-	public Option<User> findUser(final byte[] certificate)
+	public Option<User> findUser(@NonNull final byte[] certificate)
 	{
-		return Option.of(queryFactory.select(userProjection)
+		// the certificate is not unique (existing installations may contain users that share one), so such a certificate is not accepted
+		val result = List.ofAll(queryFactory.select(userProjection)
 				.from(table)
-				.where(table.certificate.eq(certificate))
-				.fetchOne());
+				.where(table.certificateFingerprint.eq(getFingerprint(certificate)))
+				.fetch())
+				.filter(u -> Arrays.equals(u.getCertificate(),certificate));
+		if (result.size() > 1)
+			log.error("Certificate {} is used by users {}",getFingerprint(certificate),result.map(u -> u.getName()).mkString(","));
+		return result.size() == 1 ? result.headOption() : Option.none();
 	}
 
 	@Override
@@ -74,6 +84,7 @@ class UserDAOImpl implements UserDAO
 		val id = queryFactory.insert(table)
 				.set(table.name,user.getName())
 				.set(table.certificate,user.getCertificate())
+				.set(table.certificateFingerprint,getFingerprint(user.getCertificate()))
 				.executeWithKey(Long.class);
 		return user.withId(id);
 	}
@@ -84,6 +95,7 @@ class UserDAOImpl implements UserDAO
 		return queryFactory.update(table)
 				.set(table.name,user.getName())
 				.set(table.certificate,user.getCertificate())
+				.set(table.certificateFingerprint,getFingerprint(user.getCertificate()))
 				.where(table.id.eq(user.getId()))
 				.execute();
 	}
@@ -95,4 +107,9 @@ class UserDAOImpl implements UserDAO
 				.where(table.id.eq(id))
 				.execute();
 	}
+
+	static String getFingerprint(final byte[] certificate)
+	{
+		return DigestUtils.sha256Hex(certificate);
+	}
 }
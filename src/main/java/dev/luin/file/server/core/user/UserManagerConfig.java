@@ -15,7 +15,10 @@
  */
 package dev.luin.file.server.core.user;
 
+import java.time.Duration;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -30,6 +33,10 @@ public class UserManagerConfig
 {
 	@Autowired
 	SQLQueryFactory queryFactory;
+	@Value("${user.cache.maximumSize}")
+	long cacheMaximumSize;
+	@Value("${user.cache.expireAfterWrite}")
+	long cacheExpireAfterWrite;
 
 	@Bean UserManager userManager()
 	{
@@ -38,6 +45,12 @@ public class UserManagerConfig
 
 	@Bean
 	public UserDAO userDAO()
+	{
+		return new CachingUserDAO(userDAOImpl(),cacheMaximumSize,Duration.ofSeconds(cacheExpireAfterWrite));
+	}
+
+	@Bean
+	public UserDAO userDAOImpl()
 	{
 		return new UserDAOImpl(queryFactory);
 	}
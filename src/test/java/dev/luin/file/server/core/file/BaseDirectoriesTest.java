@@ -0,0 +1,108 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import lombok.val;
+
+@TestInstance(value = Lifecycle.PER_CLASS)
+public class BaseDirectoriesTest
+{
+	Path dir0;
+	Path dir1;
+
+	@BeforeAll
+	public void init() throws IOException
+	{
+		dir0 = Files.createTempDirectory("fs0").toAbsolutePath().normalize();
+		dir1 = Files.createTempDirectory("fs1").toAbsolutePath().normalize();
+	}
+
+	@AfterAll
+	public void destroy() throws IOException
+	{
+		Files.deleteIfExists(dir0);
+		Files.deleteIfExists(dir1);
+	}
+
+	private BaseDirectories baseDirectories(final PlacementPolicy placementPolicy)
+	{
+		return BaseDirectories.of(dir0 + " , " + dir1,placementPolicy);
+	}
+
+	@Test
+	public void testSelectRoundRobin()
+	{
+		val baseDirectories = baseDirectories(PlacementPolicy.ROUND_ROBIN);
+		assertEquals(dir0,baseDirectories.select(0));
+		assertEquals(dir1,baseDirectories.select(0));
+		assertEquals(dir0,baseDirectories.select(0));
+		// no base directory has enough space, so all are candidates
+		assertEquals(dir1,baseDirectories.select(Long.MAX_VALUE));
+	}
+
+	@Test
+	public void testSelectLeastInFlight()
+	{
+		val baseDirectories = baseDirectories(PlacementPolicy.LEAST_IN_FLIGHT);
+		val io = baseDirectories.startIO(dir0.resolve("file").toFile());
+		assertEquals(dir0,io.get());
+		assertEquals(dir1,baseDirectories.select(0));
+		baseDirectories.endIO(io);
+		val io1 = baseDirectories.startIO(dir1.resolve("file").toFile());
+		assertEquals(dir0,baseDirectories.select(0));
+		baseDirectories.endIO(io1);
+	}
+
+	@Test
+	public void testSelectFreeSpace()
+	{
+		val baseDirectories = baseDirectories(PlacementPolicy.FREE_SPACE);
+		assertTrue(baseDirectories.isBaseDir(baseDirectories.select(0)));
+	}
+
+	@Test
+	public void testGetRelativePath()
+	{
+		val baseDirectories = baseDirectories(PlacementPolicy.ROUND_ROBIN);
+		assertEquals("0/ab/cd/file",baseDirectories.getRelativePath(dir0.resolve("ab").resolve("cd").resolve("file")));
+		assertEquals("1/file",baseDirectories.getRelativePath(dir1.resolve("x").resolve("..").resolve("file")));
+		assertThrows(IllegalArgumentException.class,() -> baseDirectories.getRelativePath(dir0.getParent().resolve("file")));
+	}
+
+	@Test
+	public void testGetRelativePathSingleBaseDir()
+	{
+		val baseDirectories = BaseDirectories.of(dir0.toString(),PlacementPolicy.ROUND_ROBIN);
+		assertEquals("ab/file",baseDirectories.getRelativePath(dir0.resolve("ab").resolve("file")));
+		assertFalse(baseDirectories.isBaseDir(dir1));
+		assertTrue(baseDirectories.find(dir1.resolve("file")).isEmpty());
+	}
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import io.vavr.control.Option;
+import lombok.val;
+
+@TestInstance(value = Lifecycle.PER_CLASS)
+public class CachingFSFileDAOTest
+{
+	private static final String VIRTUAL_PATH = "/abc";
+
+	private static FSFile fsFile(final Long uploadOffset)
+	{
+		return FSFile.builder()
+				.virtualPath(VIRTUAL_PATH)
+				.path("abc")
+				.contentType("application/octet-stream")
+				.timestamp(Instant.now())
+				.userId(1)
+				.length(100L)
+				.uploadOffset(uploadOffset)
+				.build();
+	}
+
+	private static FSFileDAO fsFileDAO()
+	{
+		val result = mock(FSFileDAO.class);
+		when(result.findFile(VIRTUAL_PATH)).thenReturn(Option.of(fsFile(0L)),Option.of(fsFile(50L)));
+		return result;
+	}
+
+	private static CachingFSFileDAO cachingFSFileDAO(final FSFileDAO fsFileDAO)
+	{
+		return new CachingFSFileDAO(fsFileDAO,100,Duration.ofMinutes(1));
+	}
+
+	@Test
+	public void testFindFile()
+	{
+		val fsFileDAO = fsFileDAO();
+		val dao = cachingFSFileDAO(fsFileDAO);
+		assertEquals(0L,dao.findFile(VIRTUAL_PATH).get().getUploadOffset());
+		assertEquals(0L,dao.findFile(VIRTUAL_PATH).get().getUploadOffset());
+		assertTrue(dao.isAuthorized(VIRTUAL_PATH,1));
+		assertFalse(dao.isAuthorized(VIRTUAL_PATH,2));
+		verify(fsFileDAO,times(1)).findFile(VIRTUAL_PATH);
+	}
+
+	@Test
+	public void testFindFileNotFound()
+	{
+		val fsFileDAO = mock(FSFileDAO.class);
+		when(fsFileDAO.findFile(VIRTUAL_PATH)).thenReturn(Option.none(),Option.of(fsFile(0L)));
+		val dao = cachingFSFileDAO(fsFileDAO);
+		assertTrue(dao.findFile(VIRTUAL_PATH).isEmpty());
+		assertTrue(dao.findFile(VIRTUAL_PATH).isDefined());
+	}
+
+	@Test
+	public void testUpdateFile()
+	{
+		val fsFileDAO = fsFileDAO();
+		val dao = cachingFSFileDAO(fsFileDAO);
+		dao.findFile(VIRTUAL_PATH);
+		dao.updateFile(fsFile(50L));
+		assertEquals(50L,dao.findFile(VIRTUAL_PATH).get().getUploadOffset());
+		verify(fsFileDAO,times(2)).findFile(VIRTUAL_PATH);
+	}
+
+	@Test
+	public void testDeleteFile()
+	{
+		val fsFileDAO = fsFileDAO();
+		val dao = cachingFSFileDAO(fsFileDAO);
+		dao.findFile(VIRTUAL_PATH);
+		dao.deleteFile(VIRTUAL_PATH);
+		dao.findFile(VIRTUAL_PATH);
+		verify(fsFileDAO,times(2)).findFile(VIRTUAL_PATH);
+	}
+
+	@Test
+	public void testDeleteExpiredFiles()
+	{
+		val fsFileDAO = fsFileDAO();
+		val dao = cachingFSFileDAO(fsFileDAO);
+		dao.findFile(VIRTUAL_PATH);
+		dao.deleteExpiredFiles(Collections.singletonList(VIRTUAL_PATH),Instant.now());
+		dao.findFile(VIRTUAL_PATH);
+		verify(fsFileDAO,times(2)).findFile(VIRTUAL_PATH);
+	}
+
+	@Test
+	public void testLockFile()
+	{
+		val fsFileDAO = fsFileDAO();
+		when(fsFileDAO.lockFile(any(),any(),any())).thenReturn(false,true);
+		val dao = cachingFSFileDAO(fsFileDAO);
+		dao.findFile(VIRTUAL_PATH);
+		assertFalse(dao.lockFile(VIRTUAL_PATH,Instant.now(),Instant.now()));
+		assertEquals(0L,dao.findFile(VIRTUAL_PATH).get().getUploadOffset());
+		assertTrue(dao.lockFile(VIRTUAL_PATH,Instant.now(),Instant.now()));
+		assertEquals(50L,dao.findFile(VIRTUAL_PATH).get().getUploadOffset());
+		verify(fsFileDAO,times(2)).findFile(VIRTUAL_PATH);
+	}
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import lombok.val;
+
+@TestInstance(value = Lifecycle.PER_CLASS)
+public class ChecksumVerifierTest
+{
+	private static final byte[] PREFIX = "0123456789".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] CHUNK = "abcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.US_ASCII);
+
+	private static UploadSession uploadSession() throws IOException
+	{
+		val result = new UploadSession(PREFIX.length);
+		result.setDigests(new Digests());
+		try (val output = result.getDigests().digest(new NullOutputStream()))
+		{
+			output.write(PREFIX);
+		}
+		return result;
+	}
+
+	private static void append(final UploadSession uploadSession, final ChecksumVerifier verifier, final ByteArrayOutputStream file) throws IOException
+	{
+		try (val output = verifier.verify(uploadSession.getDigests().digest(file)))
+		{
+			output.write(CHUNK);
+		}
+		uploadSession.setOffset(uploadSession.getOffset() + CHUNK.length);
+	}
+
+	@Test
+	public void testValid() throws IOException
+	{
+		val uploadSession = uploadSession();
+		val verifier = new ChecksumVerifier(new Checksum("SHA-1",DigestUtils.sha1(CHUNK)),uploadSession);
+		val file = new ByteArrayOutputStream();
+		append(uploadSession,verifier,file);
+		assertTrue(verifier.isValid());
+		assertEquals(new String(CHUNK,StandardCharsets.US_ASCII),file.toString("US-ASCII"));
+	}
+
+	@Test
+	public void testInvalidRollback() throws IOException
+	{
+		val uploadSession = uploadSession();
+		val verifier = new ChecksumVerifier(new Checksum("MD5",DigestUtils.md5(PREFIX)),uploadSession);
+		append(uploadSession,verifier,new ByteArrayOutputStream());
+		assertFalse(verifier.isValid());
+		assertNotEquals(DigestUtils.sha256Hex(PREFIX),uploadSession.getDigests().getSha256Checksum());
+		// the verifier keeps the state from before the append to roll back to
+		assertEquals(PREFIX.length,verifier.getOffset());
+		assertEquals(DigestUtils.md5Hex(PREFIX),verifier.getDigests().getMd5Checksum());
+		assertEquals(DigestUtils.sha256Hex(PREFIX),verifier.getDigests().getSha256Checksum());
+	}
+
+	@Test
+	public void testWithoutDigests() throws IOException
+	{
+		val verifier = new ChecksumVerifier(new Checksum("SHA-256",DigestUtils.sha256(CHUNK)),new UploadSession(0));
+		assertNull(verifier.getDigests());
+		assertEquals(0,verifier.getOffset());
+	}
+
+	@Test
+	public void testUnknownAlgorithm()
+	{
+		assertThrows(IOException.class,() -> new ChecksumVerifier(new Checksum("XYZ",new byte[0]),new UploadSession(0)));
+	}
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import lombok.val;
+
+@TestInstance(value = Lifecycle.PER_CLASS)
+public class DigestsTest
+{
+	private static byte[] data(final int length)
+	{
+		val result = new byte[length];
+		for (int i = 0; i < length; i++)
+			result[i] = (byte)(i * 31);
+		return result;
+	}
+
+	@Test
+	public void testEmpty()
+	{
+		val digests = new Digests();
+		assertEquals(DigestUtils.md5Hex(new byte[0]),digests.getMd5Checksum());
+		assertEquals(DigestUtils.sha256Hex(new byte[0]),digests.getSha256Checksum());
+	}
+
+	@Test
+	public void testIncremental() throws IOException
+	{
+		val data = data(100000);
+		val digests = new Digests();
+		try (val output = digests.digest(new NullOutputStream()))
+		{
+			output.write(data,0,1000);
+		}
+		assertEquals(DigestUtils.md5Hex(Arrays.copyOf(data,1000)),digests.getMd5Checksum());
+		assertEquals(DigestUtils.sha256Hex(Arrays.copyOf(data,1000)),digests.getSha256Checksum());
+		try (val output = digests.digest(new NullOutputStream()))
+		{
+			output.write(data,1000,data.length - 1000);
+		}
+		assertEquals(DigestUtils.md5Hex(data),digests.getMd5Checksum());
+		assertEquals(DigestUtils.sha256Hex(data),digests.getSha256Checksum());
+	}
+
+	@Test
+	public void testCopy() throws IOException
+	{
+		val data = data(1000);
+		val digests = new Digests();
+		try (val output = digests.digest(new NullOutputStream()))
+		{
+			output.write(data,0,500);
+		}
+		val copy = digests.copy();
+		try (val output = copy.digest(new NullOutputStream()))
+		{
+			output.write(data,500,500);
+		}
+		assertEquals(DigestUtils.sha256Hex(Arrays.copyOf(data,500)),digests.getSha256Checksum());
+		assertEquals(DigestUtils.md5Hex(data),copy.getMd5Checksum());
+		assertEquals(DigestUtils.sha256Hex(data),copy.getSha256Checksum());
+	}
+
+	@Test
+	public void testOfFile() throws IOException
+	{
+		val data = data(10000);
+		val file = File.createTempFile("digests",".tmp");
+		try
+		{
+			Files.write(file.toPath(),data);
+			val digests = Digests.of(file,4000);
+			assertEquals(DigestUtils.md5Hex(Arrays.copyOf(data,4000)),digests.getMd5Checksum());
+			assertEquals(DigestUtils.sha256Hex(Arrays.copyOf(data,4000)),digests.getSha256Checksum());
+		}
+		finally
+		{
+			file.delete();
+		}
+	}
+}
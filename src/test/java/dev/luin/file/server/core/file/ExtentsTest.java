@@ -0,0 +1,115 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import lombok.val;
+
+@TestInstance(value = Lifecycle.PER_CLASS)
+public class ExtentsTest
+{
+	@Test
+	public void testOf()
+	{
+		assertEquals(0,Extents.of(0).getOffset());
+		assertEquals("{}",Extents.of(0).toString());
+		assertEquals(100,Extents.of(100).getOffset());
+	}
+
+	@Test
+	public void testAdjacent()
+	{
+		val extents = new Extents();
+		extents.add(200,300);
+		assertEquals(0,extents.getOffset());
+		extents.add(100,200);
+		assertEquals("{100=300}",extents.toString());
+		extents.add(0,100);
+		assertEquals("{0=300}",extents.toString());
+		assertEquals(300,extents.getOffset());
+	}
+
+	@Test
+	public void testOverlapping()
+	{
+		val extents = new Extents();
+		extents.add(100,200);
+		extents.add(150,250);
+		assertEquals("{100=250}",extents.toString());
+		extents.add(50,120);
+		assertEquals("{50=250}",extents.toString());
+		extents.add(120,180);
+		assertEquals("{50=250}",extents.toString());
+		extents.add(0,300);
+		assertEquals("{0=300}",extents.toString());
+	}
+
+	@Test
+	public void testGaps()
+	{
+		val extents = Extents.of(100);
+		extents.add(300,400);
+		extents.add(500,600);
+		assertEquals("{0=100, 300=400, 500=600}",extents.toString());
+		assertEquals(100,extents.getOffset());
+		extents.add(350,550);
+		assertEquals("{0=100, 300=600}",extents.toString());
+		extents.add(100,300);
+		assertEquals("{0=600}",extents.toString());
+		assertEquals(600,extents.getOffset());
+	}
+
+	@Test
+	public void testEmpty()
+	{
+		val extents = Extents.of(100);
+		extents.add(200,200);
+		extents.add(300,250);
+		assertEquals("{0=100}",extents.toString());
+	}
+
+	@Test
+	public void testOverlaps()
+	{
+		val extents = Extents.of(100);
+		extents.add(200,300);
+		assertFalse(extents.overlaps(100,200));
+		assertFalse(extents.overlaps(150,150));
+		assertFalse(extents.overlaps(300,400));
+		assertTrue(extents.overlaps(99,101));
+		assertTrue(extents.overlaps(150,201));
+		assertTrue(extents.overlaps(250,260));
+		assertTrue(extents.overlaps(0,1000));
+	}
+
+	@Test
+	public void testIsCompleted()
+	{
+		val extents = Extents.of(100);
+		extents.add(150,200);
+		assertFalse(extents.isCompleted(200L));
+		assertFalse(extents.isCompleted(null));
+		extents.add(100,150);
+		assertTrue(extents.isCompleted(200L));
+	}
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.val;
+
+@TestInstance(value = Lifecycle.PER_CLASS)
+public class ParallelUploadTest
+{
+	private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.US_ASCII);
+	Path baseDir;
+	FileSystem fs;
+	FSFile fsFile;
+
+	@BeforeEach
+	public void init() throws IOException
+	{
+		baseDir = Files.createTempDirectory("fs");
+		val path = baseDir.resolve("file");
+		Files.write(path,new byte[CONTENT.length]);
+		val fsFileDAO = mock(FSFileDAO.class);
+		val metrics = new FileSystemMetrics(new SimpleMeterRegistry());
+		fs = FileSystem.builder()
+				.fsFileDAO(fsFileDAO)
+				.securityManager(new SecurityManager(fsFileDAO))
+				.uploadSessions(new UploadSessions(metrics,Duration.ofHours(1)))
+				.metrics(metrics)
+				.virtualPathLength(16)
+				.baseDirectories(BaseDirectories.of(baseDir.toString(),PlacementPolicy.ROUND_ROBIN))
+				.filenameLength(32)
+				.uploadExpireAfter(Duration.ZERO)
+				.preallocation(Preallocation.SPARSE)
+				.uploadLockMode(UploadLockMode.MEMORY)
+				.uploadLockTimeout(Duration.ZERO)
+				.parallelUploads(true)
+				.build();
+		fsFile = FSFile.builder()
+				.virtualPath("/file")
+				.path(path.toString())
+				.contentType("application/octet-stream")
+				.timestamp(Instant.now())
+				.length((long)CONTENT.length)
+				.uploadOffset(0L)
+				.build();
+	}
+
+	@AfterEach
+	public void destroy() throws IOException
+	{
+		FileUtils.deleteDirectory(baseDir.toFile());
+	}
+
+	private FSFile append(final int first, final int last, final byte[] content, final Checksum checksum) throws IOException
+	{
+		val length = last - first;
+		return fs.append(fsFile,(long)first,new ByteArrayInputStream(content,first,length),(long)length,checksum);
+	}
+
+	private static Checksum sha1(final String data)
+	{
+		return new Checksum("SHA-1",DigestUtils.sha1(data));
+	}
+
+	@Test
+	public void testOverlappingChunk() throws IOException
+	{
+		val appender = fs.startAppend(fsFile,2L,4L,null);
+		assertThrows(UploadConflictException.class,() -> fs.startAppend(fsFile,0L,3L,null));
+		assertThrows(UploadConflictException.class,() -> fs.startAppend(fsFile,5L,5L,null));
+		// adjacent chunks do not overlap
+		append(0,2,CONTENT,null);
+		append(6,10,CONTENT,null);
+		appender.getOutput().write(CONTENT,2,4);
+		val result = fs.finishAppend(appender);
+		assertEquals(DigestUtils.sha256Hex(CONTENT),result.getSha256Checksum());
+		// a completed upload rejects chunks that arrive late
+		assertThrows(FileNotFoundException.class,() -> append(0,2,CONTENT,null));
+	}
+
+	@Test
+	public void testReceivedChunk() throws IOException
+	{
+		val result = append(0,4,CONTENT,null);
+		assertEquals(4L,result.getUploadOffset());
+		assertThrows(UploadConflictException.class,() -> append(3,6,CONTENT,null));
+	}
+
+	@Test
+	public void testFailedChunk() throws IOException
+	{
+		append(0,5,CONTENT,null);
+		// the data of a chunk with a wrong checksum is written, but not received, so it is overwritten by the retry
+		assertThrows(ChecksumMismatchException.class,() -> append(5,10,"abcdefghij".getBytes(StandardCharsets.US_ASCII),sha1("56789")));
+		val appender = fs.startAppend(fsFile,5L,5L,null);
+		appender.getOutput().write('x');
+		fs.abortAppend(appender);
+		val result = append(5,10,CONTENT,sha1("56789"));
+		assertEquals(DigestUtils.sha256Hex(CONTENT),result.getSha256Checksum());
+		assertEquals(new String(CONTENT,StandardCharsets.US_ASCII),new String(Files.readAllBytes(fsFile.getFile().toPath()),StandardCharsets.US_ASCII));
+	}
+
+	@Test
+	public void testChunkExceedsReservation() throws IOException
+	{
+		val appender = fs.startAppend(fsFile,0L,2L,null);
+		assertThrows(UploadLengthExceededException.class,() -> appender.getOutput().write(CONTENT,0,3));
+		fs.abortAppend(appender);
+		assertEquals(0L,fs.getOffset(fsFile));
+	}
+}
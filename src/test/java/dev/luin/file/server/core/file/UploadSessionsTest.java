@@ -0,0 +1,129 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.val;
+
+@TestInstance(value = Lifecycle.PER_CLASS)
+public class UploadSessionsTest
+{
+	private static FSFile fsFile(final String path, final long uploadOffset)
+	{
+		return FSFile.builder()
+				.virtualPath("/abc")
+				.path(path)
+				.contentType("application/octet-stream")
+				.timestamp(Instant.now())
+				.userId(1)
+				.length(100L)
+				.uploadOffset(uploadOffset)
+				.build();
+	}
+
+	private static UploadSessions uploadSessions()
+	{
+		return new UploadSessions(new FileSystemMetrics(new SimpleMeterRegistry()),Duration.ofHours(1));
+	}
+
+	@Test
+	public void testTryLock() throws IOException
+	{
+		val uploadSessions = uploadSessions();
+		val fsFile = fsFile("abc",5);
+		val session = uploadSessions.tryLock(fsFile);
+		assertEquals(5,session.getOffset());
+		assertThrows(UploadConflictException.class,() -> uploadSessions.tryLock(fsFile));
+		session.setOffset(10);
+		uploadSessions.unlock(fsFile,session);
+		val session1 = uploadSessions.tryLock(fsFile);
+		assertSame(session,session1);
+		assertEquals(10,session1.getOffset());
+		uploadSessions.unlock(fsFile,session1);
+	}
+
+	@Test
+	public void testTryLockRemoved() throws IOException
+	{
+		val uploadSessions = uploadSessions();
+		val fsFile = fsFile("abc",5);
+		val session = uploadSessions.tryLock(fsFile);
+		uploadSessions.remove(fsFile.getVirtualPath());
+		// a removed session no longer guards the upload, a new one is created from the stored offset
+		val session1 = uploadSessions.tryLock(fsFile);
+		assertNotSame(session,session1);
+		assertEquals(5,session1.getOffset());
+		assertThrows(UploadConflictException.class,() -> uploadSessions.tryLock(fsFile));
+		session.getLock().release();
+		uploadSessions.unlock(fsFile,session1);
+	}
+
+	@Test
+	public void testExpiry() throws IOException, InterruptedException
+	{
+		val uploadSessions = new UploadSessions(new FileSystemMetrics(new SimpleMeterRegistry()),Duration.ofMillis(100));
+		val fsFile = fsFile("abc",5);
+		val session = uploadSessions.tryLock(fsFile);
+		Thread.sleep(200);
+		// a locked session does not expire
+		assertSame(session,uploadSessions.get(fsFile));
+		session.setOffset(10);
+		uploadSessions.unlock(fsFile,session);
+		assertSame(session,uploadSessions.get(fsFile));
+		Thread.sleep(200);
+		val session1 = uploadSessions.get(fsFile);
+		assertNotSame(session,session1);
+		assertEquals(5,session1.getOffset());
+	}
+
+	@Test
+	public void testGetDigests() throws IOException
+	{
+		val data = "0123456789".getBytes(StandardCharsets.US_ASCII);
+		val file = File.createTempFile("upload",".tmp");
+		try
+		{
+			Files.write(file.toPath(),data);
+			val uploadSessions = uploadSessions();
+			val fsFile = fsFile(file.getAbsolutePath(),4);
+			val session = uploadSessions.get(fsFile);
+			val digests = uploadSessions.getDigests(fsFile,session);
+			assertEquals(DigestUtils.sha256Hex("0123"),digests.getSha256Checksum());
+			assertSame(digests,uploadSessions.getDigests(fsFile,session));
+		}
+		finally
+		{
+			file.delete();
+		}
+	}
+}
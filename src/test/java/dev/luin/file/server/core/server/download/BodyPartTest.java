@@ -0,0 +1,63 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.server.download;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+
+import org.apache.commons.codec.binary.Base64OutputStream;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import lombok.val;
+
+@TestInstance(value = Lifecycle.PER_CLASS)
+public class BodyPartTest
+{
+	private static long encode(final int length, final int bufferSize) throws IOException
+	{
+		val output = new CountingOutputStream(new NullOutputStream());
+		try (val encoder = new Base64OutputStream(output))
+		{
+			val buffer = new byte[bufferSize];
+			for (int i = 0; i < length; i += bufferSize)
+				encoder.write(buffer,0,Math.min(bufferSize,length - i));
+		}
+		return output.getByteCount();
+	}
+
+	@Test
+	public void testGetBase64Length() throws IOException
+	{
+		for (val length : new int[]{0,1,2,3,4,56,57,58,59,113,114,115,1000,65536,100000})
+		{
+			assertEquals(encode(length,8192),BodyPart.getBase64Length(length),"length " + length);
+			assertEquals(encode(length,7),BodyPart.getBase64Length(length),"length " + length);
+		}
+	}
+
+	@Test
+	public void testGetContentLength()
+	{
+		assertEquals(5,BodyPart.of("\u00e9llo").getContentLength());
+		assertEquals(100,BodyPart.of(10,100,false).getContentLength());
+		assertEquals(BodyPart.getBase64Length(100),BodyPart.of(10,100,true).getContentLength());
+	}
+}
@@ -22,6 +22,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.TestInstance.Lifecycle;
 
+import dev.luin.file.server.core.server.download.range.ContentRangeLimits;
 import dev.luin.file.server.core.server.download.range.ContentRangeUtils;
 import io.vavr.collection.List;
 import lombok.val;
@@ -160,4 +161,44 @@ public class ContentRangeTest
 		assertThrows(IllegalArgumentException.class,() -> ContentRangeUtils.parseRangeHeader("bytes=10-0"));
 	}
 
+	@Test
+	public void testNormalizeRanges()
+	{
+		val fileLength = 10000L;
+		val limits = new ContentRangeLimits(80,100,2);
+		val ranges = ContentRangeUtils.normalizeRanges(fileLength,ContentRangeUtils.parseRangeHeader("bytes=500-999,0-99,50-199,1050-1099,-500"),limits);
+		assertEquals(3,ranges.size());
+		assertEquals("bytes 0-199/10000",ContentRangeUtils.createContentRangeHeader(ranges.get(0),fileLength));
+		assertEquals("bytes 500-1099/10000",ContentRangeUtils.createContentRangeHeader(ranges.get(1),fileLength));
+		assertEquals("bytes 9500-9999/10000",ContentRangeUtils.createContentRangeHeader(ranges.get(2),fileLength));
+	}
+
+	@Test
+	public void testNormalizeRanges1()
+	{
+		val fileLength = 10000L;
+		val limits = new ContentRangeLimits(0,100,2);
+		val ranges = ContentRangeUtils.normalizeRanges(fileLength,ContentRangeUtils.parseRangeHeader("bytes=0-99,100-199,201-299"),limits);
+		assertEquals(2,ranges.size());
+		assertEquals("bytes 0-199/10000",ContentRangeUtils.createContentRangeHeader(ranges.get(0),fileLength));
+		assertEquals("bytes 201-299/10000",ContentRangeUtils.createContentRangeHeader(ranges.get(1),fileLength));
+	}
+
+	@Test
+	public void testNormalizeRanges2()
+	{
+		val fileLength = 10000L;
+		val limits = new ContentRangeLimits(80,100,2);
+		assertEquals(0,ContentRangeUtils.normalizeRanges(fileLength,ContentRangeUtils.parseRangeHeader("bytes=0-,0-,0-"),limits).size());
+	}
+
+	@Test
+	public void testNormalizeRanges3()
+	{
+		val fileLength = 10000L;
+		val limits = new ContentRangeLimits(0,2,2);
+		assertEquals(0,ContentRangeUtils.normalizeRanges(fileLength,ContentRangeUtils.parseRangeHeader("bytes=0-0,2-2,4-4"),limits).size());
+		assertEquals(2,ContentRangeUtils.normalizeRanges(fileLength,ContentRangeUtils.parseRangeHeader("bytes=0-0,2-2,3-3"),limits).size());
+	}
+
 }
@@ -0,0 +1,155 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.server.upload;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import dev.luin.file.server.core.file.ChecksumMismatchException;
+import dev.luin.file.server.core.file.FSFile;
+import dev.luin.file.server.core.file.FileSystem;
+import dev.luin.file.server.core.file.FileType;
+import dev.luin.file.server.core.http.HttpException;
+import dev.luin.file.server.core.server.upload.header.TusMaxSize;
+import dev.luin.file.server.core.service.model.User;
+import io.vavr.collection.List;
+import io.vavr.control.Option;
+import lombok.val;
+
+@TestInstance(value = Lifecycle.PER_CLASS)
+public class PostHandlerTest
+{
+	private static final User USER = new User(1L,"user",new byte[]{1,2,3});
+	private static final FSFile PART_A = partialFile("/a");
+	private static final FSFile PART_B = partialFile("/b");
+	private static final FSFile FILE = new FSFile("/abc","abc",null,"application/octet-stream",null,null,Instant.now(),null,null,1L,3L,null,null,null);
+	private static final FSFile FINAL_FILE = new FSFile("/abc","abc",null,"application/octet-stream",null,"sha256",Instant.now(),null,null,1L,6L,FileType.FINAL,null,null);
+
+	private static FSFile partialFile(final String virtualPath)
+	{
+		return new FSFile(virtualPath,virtualPath.substring(1),null,"application/octet-stream",null,"sha256",Instant.now(),null,null,1L,3L,FileType.PARTIAL,null,null);
+	}
+
+	private static HttpServletRequest uploadRequest(final String checksum)
+	{
+		val result = mock(HttpServletRequest.class);
+		when(result.getHeader("Tus-Resumable")).thenReturn("1.0.0");
+		when(result.getHeader("Upload-Length")).thenReturn("3");
+		when(result.getHeader("Content-Length")).thenReturn("3");
+		when(result.getHeader("Content-Type")).thenReturn("application/offset+octet-stream");
+		when(result.getHeader("Upload-Checksum")).thenReturn(checksum);
+		return result;
+	}
+
+	private static FileSystem uploadFs() throws IOException
+	{
+		val result = mock(FileSystem.class);
+		when(result.createEmptyFile(any(),any(),any(),any(),any())).thenReturn(FILE);
+		return result;
+	}
+
+	private static HttpServletRequest concatRequest()
+	{
+		val result = mock(HttpServletRequest.class);
+		when(result.getHeader("Tus-Resumable")).thenReturn("1.0.0");
+		when(result.getHeader("Upload-Concat")).thenReturn("final;/upload/a https://localhost/upload/b");
+		return result;
+	}
+
+	private static FileSystem concatFs() throws IOException
+	{
+		val result = mock(FileSystem.class);
+		when(result.findFile(USER,"/a")).thenReturn(Option.of(PART_A));
+		when(result.findFile(USER,"/b")).thenReturn(Option.of(PART_B));
+		when(result.concatenateFiles(any(),any(),any(),any())).thenReturn(FINAL_FILE);
+		return result;
+	}
+
+	@AfterEach
+	public void resetMaxSize()
+	{
+		TusMaxSize.setMaxSize(null);
+	}
+
+	@Test
+	public void testConcatenateWithoutMaxSize() throws IOException
+	{
+		TusMaxSize.setMaxSize(null);
+		val fs = concatFs();
+		val response = mock(HttpServletResponse.class);
+		new PostHandler(fs,"/upload").handle(concatRequest(),response,USER);
+		verify(fs).concatenateFiles(any(),eq("application/octet-stream"),eq(1L),eq(List.of(PART_A,PART_B)));
+		verify(response).setStatus(HttpServletResponse.SC_CREATED);
+		verify(response).setHeader("Location","/upload/abc");
+	}
+
+	@Test
+	public void testConcatenateExceedsMaxSize() throws IOException
+	{
+		TusMaxSize.setMaxSize(5L);
+		val fs = concatFs();
+		val e = assertThrows(HttpException.class,() -> new PostHandler(fs,"/upload").handle(concatRequest(),mock(HttpServletResponse.class),USER));
+		assertEquals(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE,e.getStatusCode());
+	}
+
+	@Test
+	public void testUploadChecksumMismatch() throws IOException
+	{
+		val fs = uploadFs();
+		doThrow(new ChecksumMismatchException("Checksum error")).when(fs).append(any(),any(),any(),any(),any());
+		val checksum = "sha1 " + Base64.encodeBase64String(DigestUtils.sha1("xyz".getBytes(StandardCharsets.US_ASCII)));
+		val response = mock(HttpServletResponse.class);
+		val e = assertThrows(HttpException.class,() -> new PostHandler(fs,"/upload").handle(uploadRequest(checksum),response,USER));
+		assertEquals(HttpException.SC_CHECKSUM_MISMATCH,e.getStatusCode());
+		verify(fs).deleteFile(FILE,true);
+		verify(response,never()).setStatus(HttpServletResponse.SC_CREATED);
+	}
+
+	@Test
+	public void testUploadInterrupted() throws IOException
+	{
+		val fs = uploadFs();
+		doThrow(new IOException("Connection reset")).when(fs).append(any(),any(),any(),any(),any());
+		val response = mock(HttpServletResponse.class);
+		new PostHandler(fs,"/upload").handle(uploadRequest(null),response,USER);
+		// the upload exists, so the client can resume it
+		verify(response).setStatus(HttpServletResponse.SC_CREATED);
+		verify(response).setHeader("Location","/upload/abc");
+		verify(fs,never()).deleteFile(any(),anyBoolean());
+	}
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.server.upload.header;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import dev.luin.file.server.core.http.HttpException;
+import io.vavr.control.Option;
+import lombok.val;
+
+@TestInstance(value = Lifecycle.PER_CLASS)
+public class UploadChecksumTest
+{
+	private static final byte[] DATA = "hello world".getBytes(StandardCharsets.US_ASCII);
+
+	private static Option<UploadChecksum> parse(final String value)
+	{
+		val request = mock(HttpServletRequest.class);
+		when(request.getHeader(UploadChecksum.HEADER_NAME)).thenReturn(value);
+		return UploadChecksum.of(request);
+	}
+
+	@Test
+	public void testNone()
+	{
+		assertTrue(parse(null).isEmpty());
+	}
+
+	@Test
+	public void testChecksum()
+	{
+		val value = Base64.encodeBase64String(DigestUtils.sha1(DATA));
+		val checksum = parse("SHA1 " + value).get().toChecksum();
+		assertEquals("SHA-1",checksum.getAlgorithm());
+		assertArrayEquals(DigestUtils.sha1(DATA),checksum.getValue());
+		assertEquals("sha256 " + Base64.encodeBase64String(DigestUtils.sha256(DATA)),parse("sha256 " + Base64.encodeBase64String(DigestUtils.sha256(DATA))).get().toString());
+	}
+
+	@Test
+	public void testAlgorithms()
+	{
+		assertEquals("md5,sha1,sha256,sha512",UploadChecksum.getAlgorithms());
+	}
+
+	@Test
+	public void testInvalid()
+	{
+		for (val value : new String[]{"sha1","sha1 !!!!","sha1 YWJj?"})
+			assertEquals(400,assertThrows(HttpException.class,() -> parse(value)).getStatusCode(),value);
+		assertEquals(400,assertThrows(HttpException.class,() -> parse("crc32 AAAAAA==")).getStatusCode());
+	}
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.server.upload.header;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import dev.luin.file.server.core.http.HttpException;
+import io.vavr.collection.List;
+import io.vavr.control.Option;
+import lombok.val;
+
+@TestInstance(value = Lifecycle.PER_CLASS)
+public class UploadConcatTest
+{
+	private static Option<UploadConcat> parse(final String value)
+	{
+		val request = mock(HttpServletRequest.class);
+		when(request.getHeader(UploadConcat.HEADER_NAME)).thenReturn(value);
+		return UploadConcat.of(request);
+	}
+
+	@Test
+	public void testNone()
+	{
+		assertTrue(parse(null).isEmpty());
+	}
+
+	@Test
+	public void testPartial()
+	{
+		val uploadConcat = parse(" partial ").get();
+		assertTrue(uploadConcat.isPartial());
+		assertTrue(uploadConcat.getPartialUploads().isEmpty());
+		assertEquals("partial",uploadConcat.toString());
+	}
+
+	@Test
+	public void testFinal()
+	{
+		val uploadConcat = parse("final;/files/a  /files/b\t/files/c").get();
+		assertTrue(uploadConcat.isFinal());
+		assertEquals(List.of("/files/a","/files/b","/files/c"),uploadConcat.getPartialUploads());
+		assertEquals("final;/files/a /files/b /files/c",uploadConcat.toString());
+	}
+
+	@Test
+	public void testFinalSingle()
+	{
+		val uploadConcat = parse("final; /files/a").get();
+		assertEquals(List.of("/files/a"),uploadConcat.getPartialUploads());
+	}
+
+	@Test
+	public void testInvalid()
+	{
+		for (val value : new String[]{"","partial;","final","final;","final;  ","Final;/files/a"})
+			assertEquals(400,assertThrows(HttpException.class,() -> parse(value)).getStatusCode(),value);
+	}
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright 2020 E.Luinstra
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.luin.file.server.core.user;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import dev.luin.file.server.core.service.model.User;
+import io.vavr.control.Option;
+import lombok.val;
+
+@TestInstance(value = Lifecycle.PER_CLASS)
+public class CachingUserDAOTest
+{
+	private static final byte[] CERTIFICATE = new byte[]{1,2,3};
+	private static final byte[] NEW_CERTIFICATE = new byte[]{4,5,6};
+	private static final User USER = new User(1L,"user",CERTIFICATE);
+
+	private static CachingUserDAO cachingUserDAO(final UserDAO userDAO)
+	{
+		return new CachingUserDAO(userDAO,100,Duration.ofMinutes(1));
+	}
+
+	@Test
+	public void testFindUser()
+	{
+		val userDAO = mock(UserDAO.class);
+		when(userDAO.findUser(CERTIFICATE)).thenReturn(Option.of(USER));
+		val dao = cachingUserDAO(userDAO);
+		assertEquals(USER,dao.findUser(CERTIFICATE).get());
+		assertEquals(USER,dao.findUser(CERTIFICATE).get());
+		verify(userDAO,times(1)).findUser(CERTIFICATE);
+	}
+
+	@Test
+	public void testInsertUser()
+	{
+		val userDAO = mock(UserDAO.class);
+		when(userDAO.findUser(CERTIFICATE)).thenReturn(Option.none(),Option.of(USER));
+		when(userDAO.insertUser(USER)).thenReturn(USER);
+		val dao = cachingUserDAO(userDAO);
+		assertTrue(dao.findUser(CERTIFICATE).isEmpty());
+		dao.insertUser(USER);
+		assertEquals(USER,dao.findUser(CERTIFICATE).get());
+	}
+
+	@Test
+	public void testUpdateUser()
+	{
+		val userDAO = mock(UserDAO.class);
+		val user = new User(USER.getId(),USER.getName(),NEW_CERTIFICATE);
+		when(userDAO.findUser(CERTIFICATE)).thenReturn(Option.of(USER),Option.none());
+		when(userDAO.findUser(NEW_CERTIFICATE)).thenReturn(Option.none(),Option.of(user));
+		val dao = cachingUserDAO(userDAO);
+		assertEquals(USER,dao.findUser(CERTIFICATE).get());
+		assertTrue(dao.findUser(NEW_CERTIFICATE).isEmpty());
+		dao.updateUser(user);
+		// the replaced certificate is evicted by user id
+		assertTrue(dao.findUser(CERTIFICATE).isEmpty());
+		assertEquals(user,dao.findUser(NEW_CERTIFICATE).get());
+	}
+
+	@Test
+	public void testDeleteUser()
+	{
+		val userDAO = mock(UserDAO.class);
+		when(userDAO.findUser(CERTIFICATE)).thenReturn(Option.of(USER),Option.none());
+		val dao = cachingUserDAO(userDAO);
+		assertEquals(USER,dao.findUser(CERTIFICATE).get());
+		dao.deleteUser(USER.getId());
+		assertTrue(dao.findUser(CERTIFICATE).isEmpty());
+		verify(userDAO,times(2)).findUser(CERTIFICATE);
+	}
+}